@@ -0,0 +1,91 @@
+package com.chess.dto;
+
+import com.chess.engine.Position;
+import com.chess.entity.TimeControl;
+import com.chess.service.SampleGame;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of what the server sends most: a game with its move list (REST and sync snapshots), a single
+ * move and the MOVE event broadcast on every ply. Uses an ObjectMapper built like Spring's. Run with
+ * {@code -prof gc} to see allocation per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameJsonBenchmark {
+
+    @Param({"40", "80", "160"})
+    int plies;
+
+    private ObjectMapper mapper;
+    private GameDto game;
+    private MoveDto move;
+    private GameEventDto event;
+    private byte[] gameJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        SampleGame sample = SampleGame.of(plies);
+        List<MoveDto> moves = new ArrayList<>(plies);
+        for (int i = 0; i < plies; i++) {
+            moves.add(new MoveDto(i + 1, sample.from.get(i), sample.to.get(i), "P", sample.promotions.get(i)));
+        }
+        Position position = sample.positionAfter(plies);
+        game = GameDto.builder()
+                .id(42L)
+                .whiteUsername("alice")
+                .blackUsername("bob")
+                .status("ACTIVE")
+                .moves(moves)
+                .fen(position.toFen())
+                .plyCount(plies)
+                .timeControl(TimeControl.defaults())
+                .turnStartedAtEpochMs(1_700_000_000_000L)
+                .build();
+        game.setRemainingMs(431_250, 389_900);
+        move = moves.get(plies - 1);
+        event = GameEventDto.builder()
+                .type(GameEventDto.Type.MOVE)
+                .gameId(42L)
+                .seq(plies)
+                .move(move)
+                .whiteRemainingMs(431_250L)
+                .blackRemainingMs(389_900L)
+                .turnStartedAtEpochMs(1_700_000_000_000L)
+                .build();
+        gameJson = mapper.writeValueAsBytes(game);
+    }
+
+    @Benchmark
+    public byte[] gameWithMoves() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(game);
+    }
+
+    @Benchmark
+    public byte[] move() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(move);
+    }
+
+    @Benchmark
+    public byte[] moveEvent() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public GameDto readGameWithMoves() throws IOException {
+        return mapper.readValue(gameJson, GameDto.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.chess.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extra work per recorded move to detect the end of the game. {@code termination} is the whole check the
+ * server runs after each move and should stay in the low microseconds; {@code hasLegalMove} is its mate and
+ * stalemate part, and {@code generateLegal} counts every move instead, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameEndBenchmark {
+
+    @Param({
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4",
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"
+    })
+    String fen;
+
+    private Position position;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    @Setup
+    public void setUp() {
+        position = Position.fromFen(fen);
+    }
+
+    @Benchmark
+    public Termination termination() {
+        return Termination.of(position);
+    }
+
+    @Benchmark
+    public boolean hasLegalMove() {
+        return MoveGenerator.hasLegalMove(position);
+    }
+
+    @Benchmark
+    public int generateLegal() {
+        return MoveGenerator.generateLegal(position, moves);
+    }
+}
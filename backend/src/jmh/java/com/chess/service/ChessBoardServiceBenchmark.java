@@ -0,0 +1,89 @@
+package com.chess.service;
+
+import com.chess.engine.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The chess core as the server calls it, over games of typical lengths. Replays ({@code applyMoves},
+ * {@code replay}) run the whole game; the other benchmarks handle the last move of the game, from the position
+ * before it. Run with {@code -prof gc} to see allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChessBoardServiceBenchmark {
+
+    @Param({"40", "80", "160"})
+    int plies;
+
+    private SampleGame game;
+    private String fen;
+    private Position position;
+    private String from;
+    private String to;
+    private String promotion;
+    private boolean white;
+
+    @Setup
+    public void setUp() {
+        game = SampleGame.of(plies);
+        position = game.positionAfter(plies - 1);
+        fen = position.toFen();
+        from = game.from.get(plies - 1);
+        to = game.to.get(plies - 1);
+        promotion = game.promotions.get(plies - 1);
+        white = position.whiteToMove();
+    }
+
+    /** Whole game to a FEN string, as position snapshots were backfilled. */
+    @Benchmark
+    public String applyMoves() {
+        return ChessBoardService.applyMoves(Position.START_FEN, game.from, game.to, game.promotions);
+    }
+
+    /** Whole game onto one position, without building a FEN. */
+    @Benchmark
+    public Position replay() {
+        return ChessBoardService.replay(Position.START_FEN, game.from, game.to, game.promotions);
+    }
+
+    /** One move on a FEN string: parse, play, write. */
+    @Benchmark
+    public String applyMoveFen() {
+        return ChessBoardService.applyMove(fen, from, to, promotion);
+    }
+
+    /** One move played and taken back on a live position. */
+    @Benchmark
+    public Position applyMoveUnmake() {
+        ChessBoardService.applyMove(position, from, to, promotion);
+        position.unmakeMove();
+        return position;
+    }
+
+    @Benchmark
+    public boolean isMoveValidFen() {
+        return ChessBoardService.isMoveValid(fen, from, to, promotion, white);
+    }
+
+    /** Validation on the live position, as {@code GameService.recordMove} does it. */
+    @Benchmark
+    public boolean isMoveValid() {
+        return ChessBoardService.isMoveValid(position, from, to, promotion, white);
+    }
+
+    @Benchmark
+    public Position parseFen() {
+        return Position.fromFen(fen);
+    }
+
+    @Benchmark
+    public String writeFen() {
+        return position.toFen();
+    }
+}
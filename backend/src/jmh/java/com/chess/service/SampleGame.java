@@ -0,0 +1,71 @@
+package com.chess.service;
+
+import com.chess.engine.Move;
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.engine.Square;
+import com.chess.engine.Termination;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A legal game of a given length for benchmarks, played from the start with seeded random moves that never end
+ * the game early, so every run and every benchmark sees the same moves.
+ */
+public final class SampleGame {
+
+    public final List<String> from = new ArrayList<>();
+    public final List<String> to = new ArrayList<>();
+    /** Promotion letter per move, null for none. */
+    public final List<String> promotions = new ArrayList<>();
+    /** Moves as the engine encodes them. */
+    public final int[] moves;
+
+    private SampleGame(int plies) {
+        moves = new int[plies];
+    }
+
+    public static SampleGame of(int plies) {
+        for (long seed = 1; ; seed++) {
+            SampleGame game = play(plies, new Random(seed));
+            if (game != null) return game;
+        }
+    }
+
+    /** Null when the random walk runs into a position where every move ends the game. */
+    private static SampleGame play(int plies, Random random) {
+        SampleGame game = new SampleGame(plies);
+        Position position = Position.start();
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int n = MoveGenerator.generateLegal(position, legal);
+            int move = Move.NONE;
+            for (int tries = 0; tries < n && move == Move.NONE; tries++) {
+                int candidate = legal[random.nextInt(n)];
+                position.makeMove(candidate);
+                if (Termination.of(position) == null) move = candidate;
+                position.unmakeMove();
+            }
+            if (move == Move.NONE) return null;
+            position.makeMove(move);
+            game.moves[ply] = move;
+            game.from.add(Square.name(Move.from(move)));
+            game.to.add(Square.name(Move.to(move)));
+            int promotion = Move.promotion(move);
+            game.promotions.add(promotion != 0 ? String.valueOf(Piece.typeChar(promotion)) : null);
+        }
+        return game;
+    }
+
+    /** Position after the first {@code plies} moves. */
+    public Position positionAfter(int plies) {
+        Position position = Position.start();
+        for (int i = 0; i < plies; i++) {
+            position.makeMove(moves[i]);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,58 @@
+package com.chess.websocket;
+
+import com.chess.cluster.LocalClusterBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving a username typed in any case to the connected principal, for growing lobby sizes.
+ * {@code resolve} should stay flat; {@code linearScan} is the old keySet scan, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PresenceLookupBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int users;
+
+    private PresenceService presence;
+    private Set<String> usernames;
+    private String[] queries;
+
+    @Setup
+    public void setUp() {
+        presence = new PresenceService(new LocalClusterBus());
+        for (int i = 0; i < users; i++) {
+            presence.register("session-" + i, "Player" + i);
+        }
+        usernames = Set.copyOf(presence.getConnectedUsernames());
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = ("player" + ThreadLocalRandom.current().nextInt(users)).toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private String nextQuery() {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+
+    @Benchmark
+    public Optional<String> resolve() {
+        return presence.resolveConnectedUsername(nextQuery());
+    }
+
+    @Benchmark
+    public Optional<String> linearScan() {
+        String query = nextQuery();
+        return usernames.stream().filter(u -> u.equalsIgnoreCase(query)).findFirst();
+    }
+}
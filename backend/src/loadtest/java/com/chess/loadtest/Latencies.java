@@ -0,0 +1,48 @@
+package com.chess.loadtest;
+
+import java.util.Arrays;
+
+/** Latency samples in nanoseconds, kept whole so percentiles are exact; a run holds at most a few million. */
+final class Latencies {
+
+    private long[] samples = new long[1024];
+    private int size;
+
+    synchronized void record(long nanos) {
+        if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+        samples[size++] = nanos;
+    }
+
+    synchronized int count() {
+        return size;
+    }
+
+    /** Nearest-rank percentile in nanoseconds, 0 without samples. */
+    synchronized long percentile(double p) {
+        if (size == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return sorted[rank(p, size)];
+    }
+
+    /** "n=…, p50=…, p99=…, p999=…, max=…" in milliseconds. */
+    String summary() {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, size);
+        }
+        if (sorted.length == 0) return "n=0";
+        Arrays.sort(sorted);
+        return String.format("n=%d  p50=%s  p99=%s  p999=%s  max=%s", sorted.length,
+                ms(sorted[rank(50, sorted.length)]), ms(sorted[rank(99, sorted.length)]),
+                ms(sorted[rank(99.9, sorted.length)]), ms(sorted[sorted.length - 1]));
+    }
+
+    static String ms(long nanos) {
+        return String.format("%.2fms", nanos / 1e6);
+    }
+
+    private static int rank(double p, int n) {
+        return Math.min(n - 1, Math.max(0, (int) Math.ceil(p / 100 * n) - 1));
+    }
+}
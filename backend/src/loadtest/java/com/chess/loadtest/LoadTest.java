@@ -0,0 +1,228 @@
+package com.chess.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load generator for a running backend: registers two users per game over REST, connects them over
+ * STOMP to /ws, pairs them through a lobby invitation and plays a scripted game at the configured rate, then
+ * reports move latency percentiles and error rates. Start the backend first, then
+ * {@code mvn -Ploadtest compile exec:exec -Dloadtest.args="--games=1000"}; see {@link Options#USAGE}.
+ * <p>
+ * Move round trip is from sending a move to the mover receiving its MOVE event; opponent delivery is from
+ * sending it to the opponent receiving it, i.e. the broadcast fan-out as players see it.
+ */
+public final class LoadTest {
+
+    private final Options options;
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+    private final WebSocketStompClient stompClient;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService setup;
+    private CountDownLatch remaining;
+
+    private final Latencies moveRoundTrip = new Latencies();
+    private final Latencies delivery = new Latencies();
+    private final Latencies pairing = new Latencies();
+    private final LongAdder movesSent = new LongAdder();
+    private final LongAdder movesAcknowledged = new LongAdder();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger paired = new AtomicInteger();
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> serverErrors = new ConcurrentHashMap<>();
+
+    LoadTest(Options options) {
+        this.options = options;
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(options.timeoutMs)).build();
+        SockJsClient sockJs = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())));
+        this.stompClient = new WebSocketStompClient(sockJs);
+        this.stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.setup = Executors.newFixedThreadPool(options.setupThreads);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+        int failedGames = new LoadTest(options).run();
+        System.exit(failedGames == 0 ? 0 : 1);
+    }
+
+    /** Play every game to the end and print the report; returns the number of failed games. */
+    int run() throws InterruptedException {
+        System.out.printf("Load test against %s: %d games of %d plies, %d ms between moves, ramp-up %d s%n",
+                options.url, options.games, options.plies, thinkMs(), options.rampUpMs / 1000);
+        remaining = new CountDownLatch(options.games);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < options.games; i++) {
+            SimulatedGame game = new SimulatedGame(this, i, MoveScript.generate(options.plies, i));
+            long delayMs = options.rampUpMs * i / options.games;
+            scheduler.schedule(() -> setup.execute(game::start), delayMs, TimeUnit.MILLISECONDS);
+        }
+        long[] lastMoves = {0};
+        scheduler.scheduleAtFixedRate(() -> progress(startNanos, lastMoves), options.reportMs, options.reportMs,
+                TimeUnit.MILLISECONDS);
+        remaining.await();
+        report(System.nanoTime() - startNanos);
+        scheduler.shutdownNow();
+        setup.shutdownNow();
+        return failed.get();
+    }
+
+    private void progress(long startNanos, long[] lastMoves) {
+        long moves = movesAcknowledged.sum();
+        double rate = (moves - lastMoves[0]) * 1000.0 / options.reportMs;
+        lastMoves[0] = moves;
+        System.out.printf("[%4ds] games %d connected, %d paired, %d done, %d failed | moves %d (%.0f/s) | "
+                        + "round trip p99 %s | errors %d%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos), connected.get(), paired.get(),
+                done.get(), failed.get(), moves, rate, Latencies.ms(moveRoundTrip.percentile(99)), errors());
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long sent = movesSent.sum();
+        System.out.println();
+        System.out.printf("Games:   %d played, %d failed, %d total in %.1f s%n", done.get(), failed.get(),
+                options.games, seconds);
+        System.out.printf("Moves:   %d sent, %d acknowledged, %.1f moves/s%n", sent, movesAcknowledged.sum(),
+                movesAcknowledged.sum() / seconds);
+        System.out.println("Move round trip:    " + moveRoundTrip.summary());
+        System.out.println("Opponent delivery:  " + delivery.summary());
+        System.out.println("Pairing:            " + pairing.summary());
+        System.out.printf("Errors:  %d (%.3f%% of moves sent), %d games failed (%.3f%%)%n", errors(),
+                sent == 0 ? 0 : errors() * 100.0 / sent, failed.get(), failed.get() * 100.0 / options.games);
+        new TreeMap<>(failures).forEach((reason, n) -> System.out.printf("  game failed, %s: %d%n", reason, n.sum()));
+        new TreeMap<>(serverErrors).forEach((message, n) -> System.out.printf("  server error \"%s\": %d%n", message, n.sum()));
+    }
+
+    /** Move-level errors: error frames from the server plus moves that timed out. */
+    private long errors() {
+        long timeouts = failures.getOrDefault("move timeout", new LongAdder()).sum();
+        return serverErrors.values().stream().mapToLong(LongAdder::sum).sum() + timeouts;
+    }
+
+    String register(String username) throws Exception {
+        Map<?, ?> body = post("/api/auth/register", Map.of("username", username, "password", "load-test-" + username), null);
+        Object token = body.get("token");
+        if (!(token instanceof String s)) throw new IllegalStateException("No token for " + username);
+        return s;
+    }
+
+    void resign(Long gameId, String token) throws Exception {
+        post("/api/games/" + gameId + "/resign", Map.of(), token);
+    }
+
+    private Map<?, ?> post(String path, Object payload, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(options.url + path))
+                .timeout(Duration.ofMillis(options.timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(payload)));
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) throw new IllegalStateException(path + " returned " + response.statusCode());
+        return response.body().length == 0 ? Map.of() : json.readValue(response.body(), Map.class);
+    }
+
+    StompSession connect(String token, StompSessionHandler handler) throws Exception {
+        StompHeaders headers = new StompHeaders();
+        headers.add("Authorization", "Bearer " + token);
+        return stompClient.connectAsync(options.url + "/ws", new WebSocketHttpHeaders(), headers, handler)
+                .get(options.timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    Options options() {
+        return options;
+    }
+
+    long thinkMs() {
+        return options.thinkMs();
+    }
+
+    ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    ExecutorService setup() {
+        return setup;
+    }
+
+    Latencies moveRoundTrip() {
+        return moveRoundTrip;
+    }
+
+    Latencies delivery() {
+        return delivery;
+    }
+
+    Latencies pairing() {
+        return pairing;
+    }
+
+    void started() {
+        connected.incrementAndGet();
+    }
+
+    void paired() {
+        paired.incrementAndGet();
+    }
+
+    void moveSent() {
+        movesSent.increment();
+    }
+
+    void moveAcknowledged() {
+        movesAcknowledged.increment();
+    }
+
+    void serverError(String message) {
+        serverErrors.computeIfAbsent(message, m -> new LongAdder()).increment();
+    }
+
+    /** A game ended; {@code reason} says why it failed, {@code detail} is printed for the first few failures. */
+    void finished(boolean ok, String reason, String detail) {
+        if (ok) {
+            done.incrementAndGet();
+        } else {
+            int n = failed.incrementAndGet();
+            failures.computeIfAbsent(reason, r -> new LongAdder()).increment();
+            if (n <= 10) System.out.println("game failed: " + reason + (detail != null ? " (" + detail + ")" : ""));
+        }
+        remaining.countDown();
+    }
+}
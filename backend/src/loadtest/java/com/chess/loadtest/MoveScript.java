@@ -0,0 +1,64 @@
+package com.chess.loadtest;
+
+import com.chess.engine.Move;
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.engine.Square;
+import com.chess.engine.Termination;
+
+import java.util.Random;
+
+/**
+ * The moves one simulated game plays: legal moves picked with a seeded random generator, skipping any that
+ * would end the game (mate, stalemate or an automatic draw), so every game lasts the requested number of plies.
+ */
+final class MoveScript {
+
+    final String[] from;
+    final String[] to;
+    /** Promotion letter, null for none. */
+    final String[] promotion;
+
+    private MoveScript(int plies) {
+        from = new String[plies];
+        to = new String[plies];
+        promotion = new String[plies];
+    }
+
+    int plies() {
+        return from.length;
+    }
+
+    static MoveScript generate(int plies, long seed) {
+        Random random = new Random(seed);
+        while (true) {
+            MoveScript script = play(plies, random);
+            if (script != null) return script;
+        }
+    }
+
+    /** Null when the walk reaches a position where every move ends the game; the caller starts over. */
+    private static MoveScript play(int plies, Random random) {
+        MoveScript script = new MoveScript(plies);
+        Position position = Position.start();
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int n = MoveGenerator.generateLegal(position, legal);
+            int move = Move.NONE;
+            for (int tries = 0; tries < n && move == Move.NONE; tries++) {
+                int candidate = legal[random.nextInt(n)];
+                position.makeMove(candidate);
+                if (Termination.of(position) == null) move = candidate;
+                position.unmakeMove();
+            }
+            if (move == Move.NONE) return null;
+            position.makeMove(move);
+            script.from[ply] = Square.name(Move.from(move));
+            script.to[ply] = Square.name(Move.to(move));
+            int promo = Move.promotion(move);
+            script.promotion[ply] = promo != 0 ? String.valueOf(Piece.typeChar(promo)) : null;
+        }
+        return script;
+    }
+}
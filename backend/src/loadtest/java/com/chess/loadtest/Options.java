@@ -0,0 +1,62 @@
+package com.chess.loadtest;
+
+/** Command line of the load test: {@code --name=value} pairs, see {@link #USAGE}. */
+final class Options {
+
+    static final String USAGE = """
+            Options (all optional):
+              --url=http://localhost:8080   backend to load
+              --games=100                   concurrent games (two users and two STOMP sessions each)
+              --plies=40                    half-moves played per game
+              --think-ms=1000               delay before each move, per game
+              --moves-per-second=0          total move rate across all games; overrides --think-ms when set
+              --ramp-up-s=10                games are started evenly over this many seconds
+              --base-seconds=600            clock of each player
+              --timeout-ms=10000            wait for a move echo or a pairing before the game counts as failed
+              --report-s=5                  progress line interval
+              --setup-threads=32            parallel registrations and connections
+            """;
+
+    String url = "http://localhost:8080";
+    int games = 100;
+    int plies = 40;
+    long thinkMs = 1000;
+    double movesPerSecond;
+    long rampUpMs = 10_000;
+    int baseSeconds = 600;
+    long timeoutMs = 10_000;
+    long reportMs = 5_000;
+    int setupThreads = 32;
+    /** Usernames are unique per run, so the same database can be loaded again. */
+    String userPrefix = "lt" + Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) throw new IllegalArgumentException("Unknown argument " + arg);
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "url" -> options.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "games" -> options.games = Integer.parseInt(value);
+                case "plies" -> options.plies = Integer.parseInt(value);
+                case "think-ms" -> options.thinkMs = Long.parseLong(value);
+                case "moves-per-second" -> options.movesPerSecond = Double.parseDouble(value);
+                case "ramp-up-s" -> options.rampUpMs = (long) (Double.parseDouble(value) * 1000);
+                case "base-seconds" -> options.baseSeconds = Integer.parseInt(value);
+                case "timeout-ms" -> options.timeoutMs = Long.parseLong(value);
+                case "report-s" -> options.reportMs = (long) (Double.parseDouble(value) * 1000);
+                case "setup-threads" -> options.setupThreads = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.games < 1 || options.plies < 1) throw new IllegalArgumentException("--games and --plies must be positive");
+        return options;
+    }
+
+    /** Delay before each move of a game, from {@code --moves-per-second} when given. */
+    long thinkMs() {
+        return movesPerSecond > 0 ? Math.round(games * 1000 / movesPerSecond) : thinkMs;
+    }
+}
@@ -0,0 +1,265 @@
+package com.chess.loadtest;
+
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two users playing one scripted game, driven entirely by the messages they receive: the invitation is
+ * accepted when it arrives, and each player moves {@code think-ms} after seeing the opponent's move. Every
+ * step has a timeout, so a game always ends as done or failed. Callbacks come from the WebSocket client's
+ * threads and the scheduler; state is guarded by the instance.
+ */
+final class SimulatedGame {
+
+    /** Lets the lobby registration of both users land before the first invitation. */
+    private static final long JOIN_SETTLE_MS = 200;
+    private static final long INVITE_RETRY_MS = 1000;
+    /** Subscriptions and moves of one session may be handled by different server threads. */
+    private static final long SUBSCRIBE_SETTLE_MS = 250;
+
+    private final LoadTest run;
+    private final MoveScript script;
+    private final Player white;
+    private final Player black;
+    private final long[] sentAt;
+    private final boolean[] echoed;
+    private final boolean[] delivered;
+
+    private long invitedAt;
+    private boolean invitationSeen;
+    private boolean accepted;
+    private Long gameId;
+    private int subscribed;
+    private boolean finishing;
+    private boolean over;
+
+    SimulatedGame(LoadTest run, int index, MoveScript script) {
+        this.run = run;
+        this.script = script;
+        this.white = new Player(run.options().userPrefix + "w" + index);
+        this.black = new Player(run.options().userPrefix + "b" + index);
+        this.sentAt = new long[script.plies()];
+        this.echoed = new boolean[script.plies()];
+        this.delivered = new boolean[script.plies()];
+    }
+
+    /** Register and connect both users and join the lobby; blocking, so it runs on a setup thread. */
+    void start() {
+        try {
+            white.token = run.register(white.username);
+            black.token = run.register(black.username);
+        } catch (Exception e) {
+            fail("register", e.getMessage());
+            return;
+        }
+        try {
+            white.connect();
+            black.connect();
+        } catch (Exception e) {
+            fail("connect", e.getMessage());
+            return;
+        }
+        run.started();
+        white.send("/app/lobby/join", Map.of());
+        black.send("/app/lobby/join", Map.of());
+        run.scheduler().schedule(this::invite, JOIN_SETTLE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Invite until the invitation shows up, then wait for both players to be subscribed to the game. */
+    private synchronized void invite() {
+        if (over || subscribed == 2) return;
+        long now = System.nanoTime();
+        if (invitedAt == 0) invitedAt = now;
+        if (now - invitedAt > TimeUnit.MILLISECONDS.toNanos(run.options().timeoutMs)) {
+            fail("pairing timeout", null);
+            return;
+        }
+        if (!invitationSeen) {
+            white.send("/app/lobby/invite", Map.of("toUsername", black.username,
+                    "timeControl", Map.of("baseSeconds", run.options().baseSeconds)));
+        }
+        run.scheduler().schedule(this::invite, INVITE_RETRY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void onInvitation(Player player, Map<?, ?> message) {
+        if (over) return;
+        Object type = message.get("type");
+        if ("INVITATION".equals(type) && player == black && white.username.equals(message.get("fromUsername"))) {
+            invitationSeen = true;
+            if (!accepted) {
+                accepted = true;
+                black.send("/app/lobby/accept", Map.of("fromUsername", white.username));
+            }
+        } else if ("ACCEPTED".equals(type) && message.get("gameId") instanceof Number id && !player.subscribed) {
+            if (gameId == null) {
+                gameId = id.longValue();
+                run.pairing().record(System.nanoTime() - invitedAt);
+                run.paired();
+            }
+            player.subscribed = true;
+            player.session.subscribe("/topic/game/" + gameId, new Frames(player, this::onGameEvent));
+            if (++subscribed == 2) run.scheduler().schedule(() -> move(0), SUBSCRIBE_SETTLE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void move(int ply) {
+        if (over) return;
+        Player mover = ply % 2 == 0 ? white : black;
+        Map<String, Object> body = new HashMap<>();
+        body.put("moveNumber", ply);
+        body.put("fromSquare", script.from[ply]);
+        body.put("toSquare", script.to[ply]);
+        if (script.promotion[ply] != null) body.put("promotion", script.promotion[ply]);
+        sentAt[ply] = System.nanoTime();
+        mover.send("/app/game/" + gameId + "/move", body);
+        run.moveSent();
+        run.scheduler().schedule(() -> checkMove(ply), run.options().timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void checkMove(int ply) {
+        if (over || (echoed[ply] && delivered[ply])) return;
+        fail("move timeout", "ply " + (ply + 1) + (echoed[ply] ? " not delivered to the opponent" : " not echoed"));
+    }
+
+    private synchronized void onGameEvent(Player player, Map<?, ?> event) {
+        if (over) return;
+        long now = System.nanoTime();
+        if ("GAME_OVER".equals(event.get("type"))) {
+            if (!finishing) fail("game over early", "winner " + event.get("winnerUsername"));
+            return;
+        }
+        if (!"MOVE".equals(event.get("type")) || !(event.get("seq") instanceof Number seq)) return;
+        int ply = seq.intValue() - 1;
+        if (ply < 0 || ply >= script.plies()) return;
+        boolean byPlayer = (ply % 2 == 0) == (player == white);
+        if (byPlayer) {
+            if (echoed[ply]) return;
+            echoed[ply] = true;
+            run.moveAcknowledged();
+            run.moveRoundTrip().record(now - sentAt[ply]);
+        } else {
+            if (delivered[ply]) return;
+            delivered[ply] = true;
+            run.delivery().record(now - sentAt[ply]);
+            if (ply + 1 < script.plies()) {
+                run.scheduler().schedule(() -> move(ply + 1), run.thinkMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+        int last = script.plies() - 1;
+        if (echoed[last] && delivered[last] && !finishing) {
+            finishing = true;
+            run.setup().execute(this::resign);
+        }
+    }
+
+    /** The script is played out: resign so the game does not hold server state until a flag falls. */
+    private void resign() {
+        try {
+            run.resign(gameId, black.token);
+        } catch (Exception e) {
+            fail("resign", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            if (over) return;
+            over = true;
+        }
+        disconnect();
+        run.finished(true, null, null);
+    }
+
+    private synchronized void onError(Map<?, ?> message) {
+        if (over) return;
+        run.serverError(String.valueOf(message.get("message")));
+        fail("server error", String.valueOf(message.get("message")));
+    }
+
+    private void fail(String reason, String detail) {
+        synchronized (this) {
+            if (over) return;
+            over = true;
+        }
+        disconnect();
+        run.finished(false, reason, detail);
+    }
+
+    private void disconnect() {
+        white.disconnect();
+        black.disconnect();
+    }
+
+    /** One user and their STOMP session. */
+    private final class Player extends StompSessionHandlerAdapter {
+
+        final String username;
+        String token;
+        StompSession session;
+        boolean subscribed;
+
+        Player(String username) {
+            this.username = username;
+        }
+
+        void connect() throws Exception {
+            session = run.connect(token, this);
+            session.subscribe("/user/queue/invitations", new Frames(this, SimulatedGame.this::onInvitation));
+            session.subscribe("/user/queue/errors", new Frames(this, (p, message) -> onError(message)));
+        }
+
+        void send(String destination, Object payload) {
+            try {
+                session.send(destination, payload);
+            } catch (RuntimeException e) {
+                fail("send", e.getMessage());
+            }
+        }
+
+        void disconnect() {
+            StompSession s = session;
+            if (s != null && s.isConnected()) {
+                try {
+                    s.disconnect();
+                } catch (RuntimeException ignored) {
+                    // already closing
+                }
+            }
+        }
+
+        @Override
+        public void handleException(StompSession s, StompCommand command, StompHeaders headers, byte[] payload,
+                                    Throwable exception) {
+            fail("transport", exception.getMessage());
+        }
+
+        @Override
+        public void handleTransportError(StompSession s, Throwable exception) {
+            fail("transport", exception.getMessage());
+        }
+    }
+
+    private interface Handler {
+        void handle(Player player, Map<?, ?> message);
+    }
+
+    /** JSON frames of one subscription, decoded to a map. */
+    private record Frames(Player player, Handler handler) implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            handler.handle(player, (Map<?, ?>) payload);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.chess.cluster;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Best-effort fan-out of small state changes (presence, invitations, game cache invalidation) between
+ * backend nodes. Listeners only receive events published by <em>other</em> nodes; each node applies its own
+ * changes directly. On a single node ({@link LocalClusterBus}) publishing is a no-op.
+ */
+public interface ClusterBus {
+
+    /** Identifier of this node, passed to listeners on the other nodes. */
+    String nodeId();
+
+    void publish(String channel, Object event);
+
+    /** Register a listener for events of {@code channel}, called with the publishing node's id. */
+    <T> void subscribe(String channel, Class<T> eventType, BiConsumer<String, T> listener);
+}
@@ -0,0 +1,25 @@
+package com.chess.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BiConsumer;
+
+/** Single-node mode (simple broker): there are no other nodes to tell. */
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "simple", matchIfMissing = true)
+public class LocalClusterBus implements ClusterBus {
+
+    @Override
+    public String nodeId() {
+        return "local";
+    }
+
+    @Override
+    public void publish(String channel, Object event) {
+    }
+
+    @Override
+    public <T> void subscribe(String channel, Class<T> eventType, BiConsumer<String, T> listener) {
+    }
+}
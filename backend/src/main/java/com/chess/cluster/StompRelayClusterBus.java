@@ -0,0 +1,119 @@
+package com.chess.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Cluster bus over the external STOMP broker used in relay mode. Events go to one broker topic through the
+ * relay's shared system connection, and every node subscribes to that topic on the same connection, so no
+ * extra connection or dependency is needed. Delivery is at-most-once; state replicated this way is
+ * refreshed periodically by its owner.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker.mode", havingValue = "relay")
+@Slf4j
+public class StompRelayClusterBus implements ClusterBus {
+
+    /** Broker destination of cluster events; clients may neither send nor subscribe to it (see AuthManager). */
+    public static final String DESTINATION = "/topic/cluster.events";
+
+    private record Envelope(String node, String channel, JsonNode event) {
+    }
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StompBrokerRelayMessageHandler relay;
+    private final ObjectMapper objectMapper;
+    private final Map<String, List<BiConsumer<String, JsonNode>>> listeners = new ConcurrentHashMap<>();
+    private volatile boolean brokerAvailable;
+
+    public StompRelayClusterBus(SimpMessagingTemplate messagingTemplate,
+                                @Qualifier("stompBrokerRelayMessageHandler") AbstractBrokerMessageHandler relay,
+                                ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.relay = (StompBrokerRelayMessageHandler) relay;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Runs before the relay starts, so the subscription is made when the system connection opens. */
+    @PostConstruct
+    void subscribeOnSystemConnection() {
+        Map<String, MessageHandler> subscriptions = new HashMap<>(relay.getSystemSubscriptions());
+        subscriptions.put(DESTINATION, this::receive);
+        relay.setSystemSubscriptions(subscriptions);
+        log.info("Cluster bus on {} as node {}", DESTINATION, nodeId);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @EventListener
+    public void onBrokerAvailability(BrokerAvailabilityEvent event) {
+        brokerAvailable = event.isBrokerAvailable();
+    }
+
+    /** Dropped while the broker is unreachable; the periodic re-announcements repair replicas afterwards. */
+    @Override
+    public void publish(String channel, Object event) {
+        if (!brokerAvailable) return;
+        try {
+            messagingTemplate.convertAndSend(DESTINATION, new Envelope(nodeId, channel, objectMapper.valueToTree(event)));
+        } catch (MessageDeliveryException e) {
+            log.debug("Cluster event {} dropped: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public <T> void subscribe(String channel, Class<T> eventType, BiConsumer<String, T> listener) {
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add((node, json) -> {
+            try {
+                listener.accept(node, objectMapper.treeToValue(json, eventType));
+            } catch (IOException e) {
+                log.warn("Dropping malformed {} event from node {}: {}", channel, node, e.getMessage());
+            }
+        });
+    }
+
+    private void receive(Message<?> message) {
+        if (!(message.getPayload() instanceof byte[] body)) return;
+        Envelope envelope;
+        try {
+            envelope = objectMapper.readValue(body, Envelope.class);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable cluster event: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.node())) return;
+        for (BiConsumer<String, JsonNode> listener : listeners.getOrDefault(envelope.channel(), List.of())) {
+            try {
+                listener.accept(envelope.node(), envelope.event());
+            } catch (RuntimeException e) {
+                log.warn("Cluster listener for {} failed", envelope.channel(), e);
+            }
+        }
+    }
+}
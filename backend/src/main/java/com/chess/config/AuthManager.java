@@ -1,5 +1,6 @@
 package com.chess.config;
 
+import com.chess.cluster.StompRelayClusterBus;
 import com.chess.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.Message;
@@ -19,26 +20,42 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AuthManager implements ChannelInterceptor {
 
+    /** Broker topics used between nodes in relay mode; not for clients. */
+    private static final List<String> SYSTEM_TOPICS = List.of(
+            StompRelayClusterBus.DESTINATION, "/topic/simp-user-registry", "/topic/unresolved-user-destination");
+
     private final JwtUtil jwtUtil;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && isForbiddenDestination(accessor)) {
+            return null;
+        }
         if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
             String authHeader = accessor.getFirstNativeHeader("Authorization");
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                if (jwtUtil.validateToken(token)) {
-                    String username = jwtUtil.getUsernameFromToken(token);
-                    Long userId = jwtUtil.getUserIdFromToken(token);
+                jwtUtil.verify(authHeader.substring(7)).ifPresent(token -> {
                     UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            username, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+                            token.username(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
                     accessor.setUser(auth);
-                    accessor.getSessionAttributes().put("userId", userId);
-                    accessor.getSessionAttributes().put("username", username);
-                }
+                    accessor.getSessionAttributes().put("userId", token.userId());
+                    accessor.getSessionAttributes().put("username", token.username());
+                });
             }
         }
         return message;
     }
+
+    /**
+     * Clients only send to /app; with a broker relay anything else would go straight to the broker.
+     * Node-to-node topics cannot be subscribed to either.
+     */
+    private static boolean isForbiddenDestination(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) return false;
+        if (StompCommand.SEND.equals(accessor.getCommand())) return !destination.startsWith("/app/");
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) return SYSTEM_TOPICS.contains(destination);
+        return false;
+    }
 }
@@ -0,0 +1,42 @@
+package com.chess.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed number of threads with a bounded queue: when the queue is full, work is rejected instead of piling up.
+ * Queue depth, busy threads and rejections are published as websocket.executor.* tagged with the pool name.
+ */
+public class BoundedExecutor extends ThreadPoolTaskExecutor implements MeterBinder {
+
+    private final String name;
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedExecutor(String name, int threads, int queueCapacity) {
+        this.name = name;
+        setThreadNamePrefix(name + "-");
+        setCorePoolSize(threads);
+        setMaxPoolSize(threads);
+        setQueueCapacity(queueCapacity);
+        setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException(name + " queue is full");
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("websocket.executor.queued", this, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("pool", name).description("Tasks waiting for a thread").register(registry);
+        Gauge.builder("websocket.executor.active", this, e -> e.getActiveCount())
+                .tag("pool", name).description("Threads running a task").register(registry);
+        FunctionCounter.builder("websocket.executor.rejected", rejected, LongAdder::sum)
+                .tag("pool", name).description("Tasks refused because the queue was full").register(registry);
+    }
+}
@@ -8,9 +8,11 @@ import org.springframework.core.annotation.Order;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
- * Adds missing columns to GAMES table when upgrading from an older schema
- * (e.g. before timer and resign were added). Safe to run multiple times.
+ * Adds missing columns to the GAMES and USERS tables when upgrading from an older schema
+ * (e.g. before timer, resign or millisecond clocks were added). Safe to run multiple times.
  * Uses H2 "ADD COLUMN IF NOT EXISTS" so existing DBs get the new columns.
  */
 @Component
@@ -24,17 +26,15 @@ public class DbMigrationRunner implements ApplicationRunner {
     @Override
     public void run(ApplicationArguments args) {
         try {
-            addColumnIfNotExists("GAMES", "WINNER_USERNAME", "VARCHAR(255)");
-            addColumnIfNotExists("GAMES", "WHITE_REMAINING_SECONDS", "INTEGER DEFAULT 600 NOT NULL");
-            addColumnIfNotExists("GAMES", "BLACK_REMAINING_SECONDS", "INTEGER DEFAULT 600 NOT NULL");
-            addColumnIfNotExists("GAMES", "TURN_STARTED_AT", "TIMESTAMP");
+            migrateGames("GAMES");
+            migrateUsers("USERS");
+            migrateMoves("GAME_MOVES");
             log.info("Schema migration completed");
         } catch (Exception e1) {
             try {
-                addColumnIfNotExists("\"games\"", "WINNER_USERNAME", "VARCHAR(255)");
-                addColumnIfNotExists("\"games\"", "WHITE_REMAINING_SECONDS", "INTEGER DEFAULT 600 NOT NULL");
-                addColumnIfNotExists("\"games\"", "BLACK_REMAINING_SECONDS", "INTEGER DEFAULT 600 NOT NULL");
-                addColumnIfNotExists("\"games\"", "TURN_STARTED_AT", "TIMESTAMP");
+                migrateGames("\"games\"");
+                migrateUsers("\"users\"");
+                migrateMoves("\"game_moves\"");
                 log.info("Schema migration completed (quoted table)");
             } catch (Exception e2) {
                 log.warn("Schema migration failed. If you see 'column not found' errors, delete the folder backend/data and restart the backend.");
@@ -42,6 +42,61 @@ public class DbMigrationRunner implements ApplicationRunner {
         }
     }
 
+    private void migrateGames(String table) {
+        addColumnIfNotExists(table, "WINNER_USERNAME", "VARCHAR(255)");
+        addColumnIfNotExists(table, "WHITE_REMAINING_SECONDS", "INTEGER DEFAULT 600 NOT NULL");
+        addColumnIfNotExists(table, "BLACK_REMAINING_SECONDS", "INTEGER DEFAULT 600 NOT NULL");
+        addColumnIfNotExists(table, "TURN_STARTED_AT", "TIMESTAMP");
+        addColumnIfNotExists(table, "WHITE_REMAINING_MS", "BIGINT");
+        addColumnIfNotExists(table, "BLACK_REMAINING_MS", "BIGINT");
+        addColumnIfNotExists(table, "TC_BASE_MS", "BIGINT DEFAULT 600000 NOT NULL");
+        addColumnIfNotExists(table, "TC_INCREMENT_MS", "BIGINT DEFAULT 0 NOT NULL");
+        addColumnIfNotExists(table, "TC_DELAY_MS", "BIGINT DEFAULT 0 NOT NULL");
+        addColumnIfNotExists(table, "TC_DELAY_MODE", "VARCHAR(16) DEFAULT 'NONE' NOT NULL");
+        addColumnIfNotExists(table, "FEN", "VARCHAR(100)");
+        addColumnIfNotExists(table, "PLY_COUNT", "INTEGER DEFAULT 0 NOT NULL");
+        addColumnIfNotExists(table, "PACKED_MOVES", "VARBINARY(16384)");
+        // Games created before millisecond clocks: carry the second-based clocks over.
+        jdbcTemplate.update("UPDATE " + table + " SET WHITE_REMAINING_MS = WHITE_REMAINING_SECONDS * 1000 WHERE WHITE_REMAINING_MS IS NULL");
+        jdbcTemplate.update("UPDATE " + table + " SET BLACK_REMAINING_MS = BLACK_REMAINING_SECONDS * 1000 WHERE BLACK_REMAINING_MS IS NULL");
+        dropStatusCheck(table);
+    }
+
+    /**
+     * Hibernate generated a check listing the statuses known when the table was created; drop it when it
+     * predates ABORTED ("update" does not rewrite existing checks).
+     */
+    private void dropStatusCheck(String table) {
+        List<String> stale = jdbcTemplate.queryForList("SELECT cc.CONSTRAINT_NAME FROM INFORMATION_SCHEMA.CHECK_CONSTRAINTS cc "
+                + "JOIN INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc ON tc.CONSTRAINT_NAME = cc.CONSTRAINT_NAME "
+                + "AND tc.CONSTRAINT_SCHEMA = cc.CONSTRAINT_SCHEMA "
+                + "WHERE tc.TABLE_NAME = ? AND UPPER(cc.CHECK_CLAUSE) LIKE '%STATUS%' AND cc.CHECK_CLAUSE NOT LIKE '%ABORTED%'",
+                String.class, table.replace("\"", ""));
+        for (String constraint : stale) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP CONSTRAINT \"" + constraint + "\"");
+        }
+    }
+
+    private void migrateUsers(String table) {
+        addColumnIfNotExists(table, "RATING", "DOUBLE PRECISION DEFAULT 1500 NOT NULL");
+        addColumnIfNotExists(table, "RATING_DEVIATION", "DOUBLE PRECISION DEFAULT 350 NOT NULL");
+        addColumnIfNotExists(table, "RATING_VOLATILITY", "DOUBLE PRECISION DEFAULT 0.06 NOT NULL");
+    }
+
+    /**
+     * One row per (game, move number). Tables from before the constraint may hold a move recorded twice by
+     * concurrent requests; the first one stored is kept. Promotions were stored as the client sent them; they
+     * are brought to the upper-case letter that packed games decode to.
+     */
+    private void migrateMoves(String table) {
+        jdbcTemplate.update("DELETE FROM " + table + " m WHERE EXISTS (SELECT 1 FROM " + table
+                + " o WHERE o.GAME_ID = m.GAME_ID AND o.MOVE_NUMBER = m.MOVE_NUMBER AND o.ID < m.ID)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT IF NOT EXISTS UK_GAME_MOVES_GAME_MOVE_NUMBER"
+                + " UNIQUE (GAME_ID, MOVE_NUMBER)");
+        jdbcTemplate.update("UPDATE " + table + " SET PROMOTION = NULL WHERE PROMOTION = ''");
+        jdbcTemplate.update("UPDATE " + table + " SET PROMOTION = UPPER(PROMOTION) WHERE PROMOTION <> UPPER(PROMOTION)");
+    }
+
     private void addColumnIfNotExists(String table, String column, String type) {
         jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + column + " " + type);
     }
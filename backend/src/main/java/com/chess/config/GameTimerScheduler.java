@@ -1,18 +1,45 @@
 package com.chess.config;
 
+import com.chess.service.ClockDeadlineQueue;
+import com.chess.service.GameActors;
 import com.chess.service.GameService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Finishes games on time. Deadlines live in {@link ClockDeadlineQueue} and are updated by moves and
+ * resignations, so each tick only touches the games whose flag has actually fallen. The flag fall itself runs
+ * in the game's turn in {@link GameActors}, after any move already queued for it.
+ */
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class GameTimerScheduler {
 
     private final GameService gameService;
+    private final GameActors gameActors;
+    private final ClockDeadlineQueue clockDeadlines;
 
-    @Scheduled(fixedRate = 1000)
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleActiveGames() {
+        gameService.scheduleActiveClocks();
+    }
+
+    @Scheduled(fixedRate = 100)
     public void checkExpiredTimers() {
-        gameService.checkAndFinishExpiredGames();
+        for (Long gameId : clockDeadlines.pollExpired(System.currentTimeMillis())) {
+            gameActors.submit(gameId, () -> {
+                gameService.finishOnTime(gameId);
+                return null;
+            }).whenComplete((r, e) -> {
+                if (e == null) return;
+                log.warn("Could not finish game {} on time: {}", gameId, e.getMessage());
+                clockDeadlines.schedule(gameId, System.currentTimeMillis() + 1000);
+            });
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.chess.config;
+
+import com.chess.service.GameService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * With {@code app.game.move-storage=packed}, converts games whose moves are still rows in game_moves to a packed
+ * move array and deletes the rows. Runs after the position snapshot backfill; a no-op once every game is packed.
+ */
+@Component
+@Order(4)
+@RequiredArgsConstructor
+@Slf4j
+public class PackedMovesBackfill implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final GameService gameService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!gameService.isPackedMoveStorage()) return;
+        int packed = gameService.backfillPackedMoves(BATCH_SIZE);
+        if (packed > 0) log.info("Packed the moves of {} games", packed);
+    }
+}
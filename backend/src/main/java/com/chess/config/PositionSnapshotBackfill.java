@@ -0,0 +1,30 @@
+package com.chess.config;
+
+import com.chess.service.GameService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the position snapshot (FEN and ply count) of games stored before it existed. Runs after
+ * {@link DbMigrationRunner} has added the columns; a no-op once every game has a snapshot.
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+@Slf4j
+public class PositionSnapshotBackfill implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final GameService gameService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int updated = gameService.backfillPositionSnapshots(BATCH_SIZE);
+        if (updated > 0) log.info("Backfilled position snapshots of {} games", updated);
+    }
+}
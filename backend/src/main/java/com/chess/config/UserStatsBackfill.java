@@ -0,0 +1,30 @@
+package com.chess.config;
+
+import com.chess.service.StatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the per-user stats of games finished before they were maintained incrementally. A no-op once the
+ * stats table has rows.
+ */
+@Component
+@Order(3)
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatsBackfill implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final StatsService statsService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int counted = statsService.backfillStats(BATCH_SIZE);
+        if (counted > 0) log.info("Backfilled user stats from {} finished games", counted);
+    }
+}
@@ -1,22 +1,146 @@
 package com.chess.config;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
 
+import java.util.Map;
+
+/**
+ * STOMP over SockJS on /ws. {@code app.websocket.broker.mode=simple} (default) keeps subscriptions in this JVM;
+ * {@code relay} forwards /topic and /queue to an external STOMP broker (RabbitMQ with the STOMP plugin,
+ * ActiveMQ Artemis, ...) and shares the user registry through it, so several nodes can run behind a load
+ * balancer and any node can deliver to any user.
+ * <p>
+ * Inbound and outbound messages are dispatched on bounded pools ({@code app.websocket.inbound/outbound}): a
+ * frame that does not fit is rejected and the client gets an ERROR frame, and a client whose pending sends exceed
+ * the per-session time or buffer limit is disconnected instead of holding memory.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.broker.relay-host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.broker.relay-port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.broker.login:guest}")
+    private String login;
+
+    @Value("${app.websocket.broker.passcode:guest}")
+    private String passcode;
+
+    @Value("${app.websocket.broker.virtual-host:}")
+    private String virtualHost;
+
+    @Value("${app.websocket.inbound.pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${app.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.outbound.pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(login)
+                    .setClientPasscode(passcode)
+                    .setSystemLogin(login)
+                    .setSystemPasscode(passcode)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!virtualHost.isBlank()) relay.setVirtualHost(virtualHost);
+            // Messages re-sent from the unresolved-user broadcast carry the broker's native headers; ActiveMQ
+            // Artemis would route them by its own "destination-type" header instead of the /queue prefix.
+            config.configureBrokerChannel().interceptors(new ChannelInterceptor() {
+                @Override
+                public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                    if (!(message.getHeaders().get(NativeMessageHeaderAccessor.NATIVE_HEADERS) instanceof Map<?, ?> nativeHeaders)
+                            || !nativeHeaders.containsKey("destination-type")) {
+                        return message;
+                    }
+                    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                    accessor.removeNativeHeader("destination-type");
+                    return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+                }
+            });
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(new BoundedExecutor("ws-inbound", inboundPoolSize, inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(new BoundedExecutor("ws-outbound", outboundPoolSize, outboundQueueCapacity));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    /** Open sessions, and sessions dropped for exceeding the send limits (slow clients). */
+    @Bean
+    public MeterBinder webSocketSessionMetrics(@Qualifier("subProtocolWebSocketHandler") WebSocketHandler handler) {
+        return registry -> {
+            if (!(handler instanceof SubProtocolWebSocketHandler subProtocolHandler)) return;
+            SubProtocolWebSocketHandler.Stats stats = subProtocolHandler.getStats();
+            Gauge.builder("websocket.sessions", stats, SubProtocolWebSocketHandler.Stats::getTotalSessions)
+                    .description("Open WebSocket and SockJS sessions").register(registry);
+            FunctionCounter.builder("websocket.sessions.limit-exceeded", stats, SubProtocolWebSocketHandler.Stats::getLimitExceededSessions)
+                    .description("Sessions closed because sends exceeded the time or buffer limit").register(registry);
+        };
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -1,6 +1,8 @@
 package com.chess.controller;
 
 import com.chess.dto.GameDto;
+import com.chess.dto.MoveDto;
+import com.chess.service.GameActors;
 import com.chess.service.GameService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +17,7 @@ import java.util.List;
 public class GameController {
 
     private final GameService gameService;
+    private final GameActors gameActors;
 
     @GetMapping("/active")
     public ResponseEntity<List<GameDto>> getActiveGames(Authentication auth) {
@@ -22,20 +25,37 @@ public class GameController {
         return ResponseEntity.ok(gameService.getActiveGamesForUser(username));
     }
 
+    private static final int MAX_HISTORY_PAGE = 100;
+
+    /** Finished games, newest first. Pass the id of the last game received as {@code before} for the next page. */
     @GetMapping("/history")
-    public ResponseEntity<List<GameDto>> getGameHistory(Authentication auth) {
+    public ResponseEntity<List<GameDto>> getGameHistory(@RequestParam(required = false) Long before,
+                                                        @RequestParam(defaultValue = "50") int limit,
+                                                        Authentication auth) {
         String username = auth.getName();
-        return ResponseEntity.ok(gameService.getFinishedGamesForUser(username));
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE));
+        return ResponseEntity.ok(gameService.getFinishedGamesForUser(username, before, pageSize));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<GameDto> getGame(@PathVariable Long id, Authentication auth) {
-        return ResponseEntity.ok(gameService.getGame(id, auth.getName()));
+    public ResponseEntity<GameDto> getGame(@PathVariable Long id,
+                                           @RequestParam(defaultValue = "false") boolean includeMoves,
+                                           Authentication auth) {
+        return ResponseEntity.ok(gameService.getGame(id, auth.getName(), includeMoves));
+    }
+
+    @GetMapping("/{id}/moves")
+    public ResponseEntity<List<MoveDto>> getMoves(@PathVariable Long id) {
+        return ResponseEntity.ok(gameService.getMoves(id));
     }
 
     @PostMapping("/{id}/resign")
     public ResponseEntity<Void> resign(@PathVariable Long id, Authentication auth) {
-        gameService.resign(id, auth.getName());
+        String username = auth.getName();
+        gameActors.call(id, () -> {
+            gameService.resign(id, username);
+            return null;
+        });
         return ResponseEntity.ok().build();
     }
 }
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,15 +19,16 @@ public class InvitationController {
     private final InvitationService invitationService;
 
     /**
-     * Poll endpoint: returns the pending invitation for the current user (fallback when WebSocket does not deliver).
-     * Returns 200 with empty body when no invitation, to avoid 404 noise in the console.
+     * Invitations pending for the current user, oldest first. Fetched once when the lobby opens; changes after
+     * that are pushed on /user/queue/invitations (INVITATION, EXPIRED, CANCELLED).
      */
     @GetMapping("/pending")
-    public ResponseEntity<Map<String, String>> getPending(Authentication auth) {
+    public ResponseEntity<List<Map<String, Object>>> getPending(Authentication auth) {
         if (auth == null) return ResponseEntity.status(401).build();
-        String username = auth.getName();
-        InvitationService.Invitation inv = invitationService.getPendingFor(username);
-        if (inv == null) return ResponseEntity.ok(Map.of());
-        return ResponseEntity.ok(Map.of("fromUsername", inv.getFromUsername()));
+        List<Map<String, Object>> pending = invitationService.getPendingFor(auth.getName()).stream()
+                .map(inv -> Map.<String, Object>of("fromUsername", inv.getFromUsername(),
+                        "timeControl", inv.getTimeControl(), "expiresAtEpochMs", inv.getExpiresAt()))
+                .toList();
+        return ResponseEntity.ok(pending);
     }
 }
@@ -0,0 +1,30 @@
+package com.chess.controller;
+
+import com.chess.dto.LeaderboardEntryDto;
+import com.chess.dto.UserStatsDto;
+import com.chess.service.StatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private static final int MAX_LEADERBOARD = 100;
+
+    private final StatsService statsService;
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntryDto>> leaderboard(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(statsService.getLeaderboard(Math.max(1, Math.min(limit, MAX_LEADERBOARD))));
+    }
+
+    @GetMapping("/users/{username}/stats")
+    public ResponseEntity<UserStatsDto> userStats(@PathVariable String username) {
+        return ResponseEntity.ok(statsService.getUserStats(username));
+    }
+}
@@ -1,6 +1,7 @@
 package com.chess.dto;
 
 import com.chess.entity.Game;
+import com.chess.entity.TimeControl;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,11 +22,24 @@ public class GameDto {
     private String winnerUsername;
     private List<MoveDto> moves;
     private String fen;
+    private int plyCount;
     private Integer whiteRemainingSeconds;
     private Integer blackRemainingSeconds;
+    private Long whiteRemainingMs;
+    private Long blackRemainingMs;
+    private TimeControl timeControl;
     private Long turnStartedAtEpochMs;
 
-    public static GameDto fromEntity(Game game, List<MoveDto> moves, String fen) {
+    /** Set both clock representations from milliseconds; seconds are rounded up. */
+    public void setRemainingMs(long whiteMs, long blackMs) {
+        whiteRemainingMs = whiteMs;
+        blackRemainingMs = blackMs;
+        whiteRemainingSeconds = (int) ((whiteMs + 999) / 1000);
+        blackRemainingSeconds = (int) ((blackMs + 999) / 1000);
+    }
+
+    /** {@code moves} may be null when the client did not ask for the move list. */
+    public static GameDto fromEntity(Game game, List<MoveDto> moves) {
         return GameDto.builder()
                 .id(game.getId())
                 .whiteUsername(game.getWhitePlayer().getUsername())
@@ -33,9 +47,13 @@ public class GameDto {
                 .status(game.getStatus().name())
                 .winnerUsername(game.getWinnerUsername())
                 .moves(moves)
-                .fen(fen)
+                .fen(game.getFen())
+                .plyCount(game.getPlyCount())
                 .whiteRemainingSeconds(game.getWhiteRemainingSeconds())
                 .blackRemainingSeconds(game.getBlackRemainingSeconds())
+                .whiteRemainingMs(game.remainingMs(true))
+                .blackRemainingMs(game.remainingMs(false))
+                .timeControl(game.timeControlOrDefault())
                 .turnStartedAtEpochMs(game.getTurnStartedAt() != null ? game.getTurnStartedAt().toEpochMilli() : null)
                 .build();
     }
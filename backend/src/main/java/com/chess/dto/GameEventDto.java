@@ -0,0 +1,35 @@
+package com.chess.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Delta sent on /topic/game/{id}. {@code seq} increases by one per event: a MOVE carries its ply number,
+ * GAME_OVER the ply count plus one. Clocks are the state right after the event.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameEventDto {
+
+    public enum Type {
+        MOVE,
+        GAME_OVER
+    }
+
+    private Type type;
+    private Long gameId;
+    private long seq;
+    private MoveDto move;
+    /** GAME_OVER only: FINISHED, DRAW or ABORTED. */
+    private String status;
+    private String winnerUsername;
+    private Long whiteRemainingMs;
+    private Long blackRemainingMs;
+    private Long turnStartedAtEpochMs;
+}
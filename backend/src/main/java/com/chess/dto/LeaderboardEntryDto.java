@@ -0,0 +1,15 @@
+package com.chess.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDto {
+    private int rank;
+    private String username;
+    private long rating;
+    private long ratingDeviation;
+}
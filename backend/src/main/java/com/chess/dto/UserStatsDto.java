@@ -0,0 +1,39 @@
+package com.chess.dto;
+
+import com.chess.entity.User;
+import com.chess.entity.UserStats;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserStatsDto {
+    private String username;
+    private long rating;
+    private long ratingDeviation;
+    private int gamesPlayed;
+    private int wins;
+    private int losses;
+    private int draws;
+    /** Consecutive wins (positive) or losses (negative). */
+    private int currentStreak;
+    private int bestWinStreak;
+
+    public static UserStatsDto from(User user, UserStats stats) {
+        return UserStatsDto.builder()
+                .username(user.getUsername())
+                .rating(Math.round(user.getRating()))
+                .ratingDeviation(Math.round(user.getRatingDeviation()))
+                .gamesPlayed(stats.getGamesPlayed())
+                .wins(stats.getWins())
+                .losses(stats.getLosses())
+                .draws(stats.getDraws())
+                .currentStreak(stats.getCurrentStreak())
+                .bestWinStreak(stats.getBestWinStreak())
+                .build();
+    }
+}
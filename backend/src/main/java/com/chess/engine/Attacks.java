@@ -0,0 +1,203 @@
+package com.chess.engine;
+
+/**
+ * Precomputed attack tables. Leapers (pawn, knight, king) are plain per-square lookups; sliders use
+ * magic bitboards. Magics are searched once at class load with a fixed seed, so tables are identical
+ * on every run without hard-coding thousands of constants.
+ */
+public final class Attacks {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final int[][] ROOK_DIRS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int f = Square.file(sq);
+            int r = Square.rank(sq);
+            KNIGHT[sq] = leaper(f, r, new int[][]{{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}});
+            KING[sq] = leaper(f, r, new int[][]{{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}});
+            PAWN[Piece.WHITE][sq] = leaper(f, r, new int[][]{{-1, 1}, {1, 1}});
+            PAWN[Piece.BLACK][sq] = leaper(f, r, new int[][]{{-1, -1}, {1, -1}});
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) continue;
+                long bBit = 1L << b;
+                for (int[][] dirs : new int[][][]{ROOK_DIRS, BISHOP_DIRS}) {
+                    for (int[] d : dirs) {
+                        long ray = slide(a, 0L, d);
+                        if ((ray & bBit) != 0) {
+                            BETWEEN[a][b] = ray & slide(b, 0L, new int[]{-d[0], -d[1]});
+                            LINE[a][b] = ray | slide(a, 0L, new int[]{-d[0], -d[1]}) | (1L << a);
+                        }
+                    }
+                }
+            }
+        }
+        ROOK_TABLE = initMagics(ROOK_DIRS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_OFFSET);
+        BISHOP_TABLE = initMagics(BISHOP_DIRS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_OFFSET);
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int sq) {
+        return KNIGHT[sq];
+    }
+
+    public static long king(int sq) {
+        return KING[sq];
+    }
+
+    /** Squares attacked by a pawn of {@code color} standing on {@code sq}. */
+    public static long pawn(int color, int sq) {
+        return PAWN[color][sq];
+    }
+
+    public static long rook(int sq, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSET[sq] + (int) (((occupied & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq])];
+    }
+
+    public static long bishop(int sq, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSET[sq] + (int) (((occupied & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq])];
+    }
+
+    public static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+
+    /** Squares strictly between two aligned squares, or 0 when they do not share a line. */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /** The full rank, file or diagonal through two aligned squares, or 0 when they do not share a line. */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    private static long leaper(int f, int r, int[][] deltas) {
+        long bb = 0L;
+        for (int[] d : deltas) {
+            int nf = f + d[0];
+            int nr = r + d[1];
+            if (nf >= 0 && nf < 8 && nr >= 0 && nr < 8) bb |= 1L << Square.of(nf, nr);
+        }
+        return bb;
+    }
+
+    /** Ray attacks in one direction, stopping at (and including) the first occupied square. */
+    private static long slide(int sq, long occupied, int[] d) {
+        long bb = 0L;
+        int f = Square.file(sq) + d[0];
+        int r = Square.rank(sq) + d[1];
+        while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+            long bit = 1L << Square.of(f, r);
+            bb |= bit;
+            if ((occupied & bit) != 0) break;
+            f += d[0];
+            r += d[1];
+        }
+        return bb;
+    }
+
+    private static long slideAll(int sq, long occupied, int[][] dirs) {
+        long bb = 0L;
+        for (int[] d : dirs) bb |= slide(sq, occupied, d);
+        return bb;
+    }
+
+    /** Relevant occupancy: the rays without their last square, since a blocker on the edge changes nothing. */
+    private static long relevantMask(int sq, int[][] dirs) {
+        long mask = 0L;
+        for (int[] d : dirs) {
+            int f = Square.file(sq) + d[0];
+            int r = Square.rank(sq) + d[1];
+            while (f + d[0] >= 0 && f + d[0] < 8 && r + d[1] >= 0 && r + d[1] < 8) {
+                mask |= 1L << Square.of(f, r);
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long[] initMagics(int[][] dirs, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+        int total = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            masks[sq] = relevantMask(sq, dirs);
+            offsets[sq] = total;
+            total += 1 << Long.bitCount(masks[sq]);
+        }
+        long[] table = new long[total];
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = masks[sq];
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+            long[] occupancies = new long[size];
+            long[] attacks = new long[size];
+            long subset = 0L;
+            for (int i = 0; i < size; i++) {
+                occupancies[i] = subset;
+                attacks[i] = slideAll(sq, subset, dirs);
+                subset = (subset - mask) & mask;
+            }
+            shifts[sq] = 64 - bits;
+            int[] epoch = new int[size];
+            long[] used = new long[size];
+            for (int attempt = 1; ; attempt++) {
+                long magic = nextRandom() & nextRandom() & nextRandom();
+                if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) continue;
+                boolean ok = true;
+                for (int i = 0; i < size && ok; i++) {
+                    int index = (int) ((occupancies[i] * magic) >>> shifts[sq]);
+                    if (epoch[index] != attempt) {
+                        epoch[index] = attempt;
+                        used[index] = attacks[i];
+                    } else if (used[index] != attacks[i]) {
+                        ok = false;
+                    }
+                }
+                if (ok) {
+                    magics[sq] = magic;
+                    System.arraycopy(used, 0, table, offsets[sq], size);
+                    break;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 2685821657736338717L;
+    }
+}
@@ -0,0 +1,41 @@
+package com.chess.engine;
+
+/**
+ * Moves are packed into the low 16 bits of an int so move lists can live in primitive arrays:
+ * bits 0-5 from square, bits 6-11 to square, bits 12-14 promotion piece type (0 = none).
+ * Castling and en passant are not flagged; {@link Position#makeMove(int)} infers them from the board.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, int promotion) {
+        return from | (to << 6) | (promotion << 12);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /** Promotion piece type ({@link Piece#KNIGHT}..{@link Piece#QUEEN}) or 0 when the move is not a promotion. */
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    public static String toUci(int move) {
+        String uci = Square.name(from(move)) + Square.name(to(move));
+        int promo = promotion(move);
+        return promo == 0 ? uci : uci + Character.toLowerCase(Piece.typeChar(promo));
+    }
+}
@@ -0,0 +1,232 @@
+package com.chess.engine;
+
+/**
+ * Strictly legal move generation. Checkers and pinned pieces are computed once per call, so ordinary
+ * moves are filtered with bitmasks; only en passant (which can expose a rank check) is verified by
+ * making and unmaking the move. Moves are written into a caller-supplied {@code int[]}.
+ */
+public final class MoveGenerator {
+
+    /** Upper bound on legal moves in any reachable position (218), rounded up. */
+    public static final int MAX_MOVES = 256;
+
+    private static final ThreadLocal<int[]> BUFFER = ThreadLocal.withInitial(() -> new int[MAX_MOVES]);
+
+    private static final int E1 = 4;
+    private static final int E8 = 60;
+
+    private MoveGenerator() {
+    }
+
+    /** Fill {@code moves} with every legal move for the side to move and return how many there are. */
+    public static int generateLegal(Position pos, int[] moves) {
+        int us = pos.sideToMove();
+        int them = us ^ 1;
+        long own = pos.occupancy(us);
+        long enemy = pos.occupancy(them);
+        long occupied = own | enemy;
+        int king = pos.kingSquare(us);
+        int n = 0;
+
+        long checkers = pos.attackersTo(king, them, occupied);
+        long withoutKing = occupied & ~(1L << king);
+        for (long b = Attacks.king(king) & ~own; b != 0; b &= b - 1) {
+            int to = Long.numberOfTrailingZeros(b);
+            if (pos.attackersTo(to, them, withoutKing) == 0) moves[n++] = Move.of(king, to);
+        }
+        if (Long.bitCount(checkers) > 1) return n;
+
+        long target = ~own;
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            target &= Attacks.between(king, checker) | checkers;
+        } else {
+            n = generateCastling(pos, us, them, occupied, moves, n);
+        }
+        long pinned = pinned(pos, us, them, king, own, enemy);
+
+        for (long b = pos.pieces(us, Piece.KNIGHT) & ~pinned; b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            n = addAll(moves, n, from, Attacks.knight(from) & target);
+        }
+        for (long b = pos.pieces(us, Piece.BISHOP) | pos.pieces(us, Piece.QUEEN); b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long to = Attacks.bishop(from, occupied) & target;
+            if ((pinned & (1L << from)) != 0) to &= Attacks.line(king, from);
+            n = addAll(moves, n, from, to);
+        }
+        for (long b = pos.pieces(us, Piece.ROOK) | pos.pieces(us, Piece.QUEEN); b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long to = Attacks.rook(from, occupied) & target;
+            if ((pinned & (1L << from)) != 0) to &= Attacks.line(king, from);
+            n = addAll(moves, n, from, to);
+        }
+
+        long empty = ~occupied;
+        int forward = us == Piece.WHITE ? 8 : -8;
+        long startRank = us == Piece.WHITE ? Attacks.RANK_1 << 8 : Attacks.RANK_8 >>> 8;
+        for (long b = pos.pieces(us, Piece.PAWN); b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long fromBit = 1L << from;
+            long to = Attacks.pawn(us, from) & enemy;
+            int one = from + forward;
+            if ((empty & (1L << one)) != 0) {
+                to |= 1L << one;
+                if ((fromBit & startRank) != 0 && (empty & (1L << (one + forward))) != 0) {
+                    to |= 1L << (one + forward);
+                }
+            }
+            to &= target;
+            if ((pinned & fromBit) != 0) to &= Attacks.line(king, from);
+            for (; to != 0; to &= to - 1) {
+                int sq = Long.numberOfTrailingZeros(to);
+                if (sq >= 56 || sq < 8) {
+                    moves[n++] = Move.of(from, sq, Piece.QUEEN);
+                    moves[n++] = Move.of(from, sq, Piece.ROOK);
+                    moves[n++] = Move.of(from, sq, Piece.BISHOP);
+                    moves[n++] = Move.of(from, sq, Piece.KNIGHT);
+                } else {
+                    moves[n++] = Move.of(from, sq);
+                }
+            }
+        }
+
+        int ep = pos.epSquare();
+        if (ep != Square.NONE) {
+            for (long b = Attacks.pawn(them, ep) & pos.pieces(us, Piece.PAWN); b != 0; b &= b - 1) {
+                int move = Move.of(Long.numberOfTrailingZeros(b), ep);
+                pos.makeMove(move);
+                boolean legal = !pos.isSquareAttacked(king, them);
+                pos.unmakeMove();
+                if (legal) moves[n++] = move;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Whether the side to move has at least one legal move; with {@link Position#inCheck()} this tells mate and
+     * stalemate apart from play going on. Same masks as {@link #generateLegal}, but returns at the first piece
+     * with a legal destination and writes no moves. Castling is skipped: it is never the only legal move, since
+     * the square the king passes over is then a legal king step.
+     */
+    public static boolean hasLegalMove(Position pos) {
+        int us = pos.sideToMove();
+        int them = us ^ 1;
+        long own = pos.occupancy(us);
+        long enemy = pos.occupancy(them);
+        long occupied = own | enemy;
+        int king = pos.kingSquare(us);
+
+        long withoutKing = occupied & ~(1L << king);
+        for (long b = Attacks.king(king) & ~own; b != 0; b &= b - 1) {
+            if (pos.attackersTo(Long.numberOfTrailingZeros(b), them, withoutKing) == 0) return true;
+        }
+        long checkers = pos.attackersTo(king, them, occupied);
+        if (Long.bitCount(checkers) > 1) return false;
+
+        long target = ~own;
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            target &= Attacks.between(king, checker) | checkers;
+        }
+        long pinned = pinned(pos, us, them, king, own, enemy);
+
+        for (long b = pos.pieces(us, Piece.KNIGHT) & ~pinned; b != 0; b &= b - 1) {
+            if ((Attacks.knight(Long.numberOfTrailingZeros(b)) & target) != 0) return true;
+        }
+        for (long b = pos.pieces(us, Piece.BISHOP) | pos.pieces(us, Piece.QUEEN); b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long to = Attacks.bishop(from, occupied) & target;
+            if ((pinned & (1L << from)) != 0) to &= Attacks.line(king, from);
+            if (to != 0) return true;
+        }
+        for (long b = pos.pieces(us, Piece.ROOK) | pos.pieces(us, Piece.QUEEN); b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long to = Attacks.rook(from, occupied) & target;
+            if ((pinned & (1L << from)) != 0) to &= Attacks.line(king, from);
+            if (to != 0) return true;
+        }
+
+        long empty = ~occupied;
+        int forward = us == Piece.WHITE ? 8 : -8;
+        long startRank = us == Piece.WHITE ? Attacks.RANK_1 << 8 : Attacks.RANK_8 >>> 8;
+        for (long b = pos.pieces(us, Piece.PAWN); b != 0; b &= b - 1) {
+            int from = Long.numberOfTrailingZeros(b);
+            long fromBit = 1L << from;
+            long to = Attacks.pawn(us, from) & enemy;
+            int one = from + forward;
+            if ((empty & (1L << one)) != 0) {
+                to |= 1L << one;
+                if ((fromBit & startRank) != 0 && (empty & (1L << (one + forward))) != 0) {
+                    to |= 1L << (one + forward);
+                }
+            }
+            to &= target;
+            if ((pinned & fromBit) != 0) to &= Attacks.line(king, from);
+            if (to != 0) return true;
+        }
+
+        int ep = pos.epSquare();
+        if (ep != Square.NONE) {
+            for (long b = Attacks.pawn(them, ep) & pos.pieces(us, Piece.PAWN); b != 0; b &= b - 1) {
+                pos.makeMove(Move.of(Long.numberOfTrailingZeros(b), ep));
+                boolean legal = !pos.isSquareAttacked(king, them);
+                pos.unmakeMove();
+                if (legal) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether {@code move} is legal for the side to move. Uses a per-thread buffer, so it does not allocate. */
+    public static boolean isLegal(Position pos, int move) {
+        int[] moves = BUFFER.get();
+        int n = generateLegal(pos, moves);
+        for (int i = 0; i < n; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    private static int generateCastling(Position pos, int us, int them, long occupied, int[] moves, int n) {
+        int rights = pos.castlingRights();
+        int kingFrom = us == Piece.WHITE ? E1 : E8;
+        int shortRight = us == Piece.WHITE ? Position.WHITE_OO : Position.BLACK_OO;
+        int longRight = us == Piece.WHITE ? Position.WHITE_OOO : Position.BLACK_OOO;
+        int rook = Piece.of(us, Piece.ROOK);
+        if (pos.kingSquare(us) != kingFrom) return n;
+        if ((rights & shortRight) != 0 && pos.pieceAt(kingFrom + 3) == rook
+                && (occupied & Attacks.between(kingFrom, kingFrom + 3)) == 0
+                && !pos.isSquareAttacked(kingFrom + 1, them) && !pos.isSquareAttacked(kingFrom + 2, them)) {
+            moves[n++] = Move.of(kingFrom, kingFrom + 2);
+        }
+        if ((rights & longRight) != 0 && pos.pieceAt(kingFrom - 4) == rook
+                && (occupied & Attacks.between(kingFrom, kingFrom - 4)) == 0
+                && !pos.isSquareAttacked(kingFrom - 1, them) && !pos.isSquareAttacked(kingFrom - 2, them)) {
+            moves[n++] = Move.of(kingFrom, kingFrom - 2);
+        }
+        return n;
+    }
+
+    /** Own pieces that are the only blocker between the king and an enemy slider. */
+    private static long pinned(Position pos, int us, int them, int king, long own, long enemy) {
+        long queens = pos.pieces(them, Piece.QUEEN);
+        long snipers = (Attacks.rook(king, enemy) & (pos.pieces(them, Piece.ROOK) | queens))
+                | (Attacks.bishop(king, enemy) & (pos.pieces(them, Piece.BISHOP) | queens));
+        long pinned = 0L;
+        long occupied = own | enemy;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1) pinned |= blockers & own;
+        }
+        return pinned;
+    }
+
+    private static int addAll(int[] moves, int n, int from, long targets) {
+        for (; targets != 0; targets &= targets - 1) {
+            moves[n++] = Move.of(from, Long.numberOfTrailingZeros(targets));
+        }
+        return n;
+    }
+}
@@ -0,0 +1,57 @@
+package com.chess.engine;
+
+/**
+ * Piece constants. A piece index is {@code color * 6 + type}, which is also the index of its bitboard
+ * in {@link Position}.
+ */
+public final class Piece {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = -1;
+
+    private static final String FEN_CHARS = "PNBRQKpnbrqk";
+
+    private Piece() {
+    }
+
+    public static int of(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int color(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    public static int type(int piece) {
+        return piece < 6 ? piece : piece - 6;
+    }
+
+    /** FEN letter of a piece index ('P', 'n', ...). */
+    public static char fenChar(int piece) {
+        return FEN_CHARS.charAt(piece);
+    }
+
+    /** Piece index for a FEN letter, or {@link #NONE}. */
+    public static int fromFenChar(char c) {
+        return FEN_CHARS.indexOf(c);
+    }
+
+    /** Upper-case letter of a piece type ('P', 'N', 'B', 'R', 'Q', 'K'). */
+    public static char typeChar(int type) {
+        return FEN_CHARS.charAt(type);
+    }
+
+    /** Piece type for a letter in either case, or {@link #NONE}. */
+    public static int typeFromChar(char c) {
+        return fromFenChar(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,372 @@
+package com.chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Mutable bitboard position: one long per piece type and color plus a mailbox for O(1) piece lookup.
+ * Side to move, castling rights, en passant square and clocks are plain ints.
+ * {@link #makeMove(int)} / {@link #unmakeMove()} keep their undo information in preallocated
+ * primitive arrays, so playing through a game does not allocate. A {@link Zobrist} hash is updated with
+ * every move and kept per ply, which is what repetition detection compares.
+ */
+public final class Position {
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static final int WHITE_OO = 1;
+    public static final int WHITE_OOO = 2;
+    public static final int BLACK_OO = 4;
+    public static final int BLACK_OOO = 8;
+
+    /** Castling rights that survive a move touching the square (a rook or king leaving/being captured). */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 15);
+        CASTLING_MASK[Square.parse("e1")] = 15 & ~(WHITE_OO | WHITE_OOO);
+        CASTLING_MASK[Square.parse("h1")] = 15 & ~WHITE_OO;
+        CASTLING_MASK[Square.parse("a1")] = 15 & ~WHITE_OOO;
+        CASTLING_MASK[Square.parse("e8")] = 15 & ~(BLACK_OO | BLACK_OOO);
+        CASTLING_MASK[Square.parse("h8")] = 15 & ~BLACK_OO;
+        CASTLING_MASK[Square.parse("a8")] = 15 & ~BLACK_OOO;
+    }
+
+    private static final int INITIAL_HISTORY = 256;
+
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private final long[] pieces = new long[12];
+    private final long[] occupancy = new long[2];
+    private final byte[] board = new byte[64];
+
+    private int sideToMove;
+    private int castlingRights;
+    private int epSquare = Square.NONE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long hash;
+
+    // Undo stack: the move played, the irreversible state it overwrote and the hash before it, one entry per ply.
+    private int[] historyMoves = new int[INITIAL_HISTORY];
+    private int[] historyState = new int[INITIAL_HISTORY];
+    private long[] historyHash = new long[INITIAL_HISTORY];
+    private int ply;
+
+    public Position() {
+        Arrays.fill(board, (byte) Piece.NONE);
+    }
+
+    public static Position start() {
+        return fromFen(START_FEN);
+    }
+
+    public static Position fromFen(String fen) {
+        Position position = new Position();
+        position.setFen(fen);
+        return position;
+    }
+
+    /** Reset this position from a FEN string. Missing trailing fields default as in the starting position. */
+    public void setFen(String fen) {
+        if (fen == null || fen.isBlank()) throw new IllegalArgumentException("Invalid FEN");
+        String[] parts = fen.trim().split("\\s+");
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(occupancy, 0L);
+        Arrays.fill(board, (byte) Piece.NONE);
+        hash = 0;
+        ply = 0;
+
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < parts[0].length(); i++) {
+            char c = parts[0].charAt(i);
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = Piece.fromFenChar(c);
+                if (piece == Piece.NONE || file > 7 || rank < 0) throw new IllegalArgumentException("Invalid FEN: " + fen);
+                put(piece, Square.of(file, rank));
+                file++;
+            }
+        }
+
+        sideToMove = parts.length > 1 && parts[1].equals("b") ? Piece.BLACK : Piece.WHITE;
+        castlingRights = 0;
+        String castling = parts.length > 2 ? parts[2] : "KQkq";
+        for (int i = 0; i < castling.length(); i++) {
+            switch (castling.charAt(i)) {
+                case 'K' -> castlingRights |= WHITE_OO;
+                case 'Q' -> castlingRights |= WHITE_OOO;
+                case 'k' -> castlingRights |= BLACK_OO;
+                case 'q' -> castlingRights |= BLACK_OOO;
+                default -> { }
+            }
+        }
+        epSquare = parts.length > 3 ? Square.parse(parts[3]) : Square.NONE;
+        halfmoveClock = parts.length > 4 ? Integer.parseInt(parts[4]) : 0;
+        fullmoveNumber = parts.length > 5 ? Integer.parseInt(parts[5]) : 1;
+        hash ^= Zobrist.castling(castlingRights) ^ epKey();
+        if (sideToMove == Piece.BLACK) hash ^= Zobrist.side();
+    }
+
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = board[Square.of(file, rank)];
+                if (piece == Piece.NONE) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        sb.append(empty);
+                        empty = 0;
+                    }
+                    sb.append(Piece.fenChar(piece));
+                }
+            }
+            if (empty > 0) sb.append(empty);
+            if (rank > 0) sb.append('/');
+        }
+        sb.append(sideToMove == Piece.WHITE ? " w " : " b ");
+        if (castlingRights == 0) {
+            sb.append('-');
+        } else {
+            if ((castlingRights & WHITE_OO) != 0) sb.append('K');
+            if ((castlingRights & WHITE_OOO) != 0) sb.append('Q');
+            if ((castlingRights & BLACK_OO) != 0) sb.append('k');
+            if ((castlingRights & BLACK_OOO) != 0) sb.append('q');
+        }
+        sb.append(' ').append(epSquare == Square.NONE ? "-" : Square.name(epSquare));
+        sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return sb.toString();
+    }
+
+    /**
+     * Play a move. The move is trusted: callers validate it first (see {@link com.chess.service.ChessBoardService}).
+     * Castling is recognised as a two-square king step and en passant as a pawn moving onto the en passant square.
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = board[from];
+        int us = sideToMove;
+        int type = Piece.type(piece);
+
+        int capSq = to;
+        if (type == Piece.PAWN && to == epSquare) {
+            capSq = us == Piece.WHITE ? to - 8 : to + 8;
+        }
+        int captured = board[capSq];
+
+        pushHistory(move, captured);
+        hash ^= Zobrist.castling(castlingRights) ^ epKey();
+
+        if (captured != Piece.NONE) remove(captured, capSq);
+        remove(piece, from);
+        int promotion = Move.promotion(move);
+        put(promotion != 0 ? Piece.of(us, promotion) : piece, to);
+
+        if (type == Piece.KING && Math.abs(to - from) == 2) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            int rook = board[rookFrom];
+            remove(rook, rookFrom);
+            put(rook, rookTo);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        epSquare = type == Piece.PAWN && Math.abs(to - from) == 16 ? (from + to) >>> 1 : Square.NONE;
+        halfmoveClock = type == Piece.PAWN || captured != Piece.NONE ? 0 : halfmoveClock + 1;
+        if (us == Piece.BLACK) fullmoveNumber++;
+        sideToMove = us ^ 1;
+        hash ^= Zobrist.castling(castlingRights) ^ epKey() ^ Zobrist.side();
+    }
+
+    /** Take back the last move played with {@link #makeMove(int)}. */
+    public void unmakeMove() {
+        ply--;
+        int move = historyMoves[ply];
+        int state = historyState[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        sideToMove ^= 1;
+        int us = sideToMove;
+        if (us == Piece.BLACK) fullmoveNumber--;
+        int captured = (state & 15) - 1;
+        castlingRights = (state >>> 4) & 15;
+        epSquare = ((state >>> 8) & 127) - 1;
+        halfmoveClock = state >>> 15;
+
+        int moved = board[to];
+        remove(moved, to);
+        int piece = Move.promotion(move) != 0 ? Piece.of(us, Piece.PAWN) : moved;
+        put(piece, from);
+        int type = Piece.type(piece);
+
+        if (type == Piece.KING && Math.abs(to - from) == 2) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            int rook = board[rookTo];
+            remove(rook, rookTo);
+            put(rook, rookFrom);
+        }
+
+        if (captured != Piece.NONE) {
+            int capSq = to;
+            if (type == Piece.PAWN && to == epSquare) {
+                capSq = us == Piece.WHITE ? to - 8 : to + 8;
+            }
+            put(captured, capSq);
+        }
+        hash = historyHash[ply];
+    }
+
+    private void pushHistory(int move, int captured) {
+        if (ply == historyMoves.length) {
+            historyMoves = Arrays.copyOf(historyMoves, ply * 2);
+            historyState = Arrays.copyOf(historyState, ply * 2);
+            historyHash = Arrays.copyOf(historyHash, ply * 2);
+        }
+        historyMoves[ply] = move;
+        historyState[ply] = (captured + 1) | (castlingRights << 4) | ((epSquare + 1) << 8) | (halfmoveClock << 15);
+        historyHash[ply] = hash;
+        ply++;
+    }
+
+    /**
+     * En passant key of the current position. The file only counts when a pawn of the side to move could
+     * capture there, so a double step nobody can take does not make otherwise identical positions differ.
+     */
+    private long epKey() {
+        if (epSquare == Square.NONE) return 0;
+        long capturers = Attacks.pawn(sideToMove ^ 1, epSquare) & pieces[Piece.of(sideToMove, Piece.PAWN)];
+        return capturers != 0 ? Zobrist.epFile(Square.file(epSquare)) : 0;
+    }
+
+    private void put(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] |= bit;
+        occupancy[Piece.color(piece)] |= bit;
+        board[sq] = (byte) piece;
+        hash ^= Zobrist.piece(piece, sq);
+    }
+
+    private void remove(int piece, int sq) {
+        long bit = ~(1L << sq);
+        pieces[piece] &= bit;
+        occupancy[Piece.color(piece)] &= bit;
+        board[sq] = (byte) Piece.NONE;
+        hash ^= Zobrist.piece(piece, sq);
+    }
+
+    /** Pieces of {@code byColor} attacking {@code sq}, with sliders seeing through to {@code occupied}. */
+    public long attackersTo(int sq, int byColor, long occupied) {
+        int base = byColor * 6;
+        long queens = pieces[base + Piece.QUEEN];
+        return (Attacks.pawn(byColor ^ 1, sq) & pieces[base + Piece.PAWN])
+                | (Attacks.knight(sq) & pieces[base + Piece.KNIGHT])
+                | (Attacks.king(sq) & pieces[base + Piece.KING])
+                | (Attacks.bishop(sq, occupied) & (pieces[base + Piece.BISHOP] | queens))
+                | (Attacks.rook(sq, occupied) & (pieces[base + Piece.ROOK] | queens));
+    }
+
+    public boolean isSquareAttacked(int sq, int byColor) {
+        return attackersTo(sq, byColor, occupancy()) != 0;
+    }
+
+    public int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[Piece.of(color, Piece.KING)]);
+    }
+
+    /** Whether the side to move is in check. */
+    public boolean inCheck() {
+        return isSquareAttacked(kingSquare(sideToMove), sideToMove ^ 1);
+    }
+
+    /** Piece index on a square or {@link Piece#NONE}. */
+    public int pieceAt(int sq) {
+        return board[sq];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[Piece.of(color, type)];
+    }
+
+    public long occupancy(int color) {
+        return occupancy[color];
+    }
+
+    public long occupancy() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public boolean whiteToMove() {
+        return sideToMove == Piece.WHITE;
+    }
+
+    public int castlingRights() {
+        return castlingRights;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /** Zobrist hash of the pieces, side to move, castling rights and en passant file. */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * How many times the current position has occurred, counting this one. Only positions since the last
+     * capture or pawn move can repeat, and only with the same side to move, so this looks at every other
+     * hash of the last {@link #halfmoveClock()} plies: at most 50 comparisons once the fifty-move rule applies.
+     * Positions before the last {@link #setFen(String)} are not known.
+     */
+    public int repetitions() {
+        int count = 1;
+        int oldest = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 2; i >= oldest; i -= 2) {
+            if (historyHash[i] == hash) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Neither side can mate: bare kings, a single minor piece, or only bishops all standing on squares of one
+     * color.
+     */
+    public boolean isInsufficientMaterial() {
+        long heavy = 0;
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            heavy |= pieces(color, Piece.PAWN) | pieces(color, Piece.ROOK) | pieces(color, Piece.QUEEN);
+        }
+        if (heavy != 0) return false;
+        long knights = pieces(Piece.WHITE, Piece.KNIGHT) | pieces(Piece.BLACK, Piece.KNIGHT);
+        long bishops = pieces(Piece.WHITE, Piece.BISHOP) | pieces(Piece.BLACK, Piece.BISHOP);
+        if (knights == 0) return (bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0;
+        return bishops == 0 && Long.bitCount(knights) == 1;
+    }
+
+    /** Number of moves made on this instance since the last {@link #setFen(String)}. */
+    public int ply() {
+        return ply;
+    }
+}
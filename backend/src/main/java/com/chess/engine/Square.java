@@ -0,0 +1,45 @@
+package com.chess.engine;
+
+/**
+ * Square indexing helpers. Squares are numbered 0..63 with a1 = 0, b1 = 1, ..., h8 = 63.
+ */
+public final class Square {
+
+    public static final int NONE = -1;
+
+    private static final String[] NAMES = new String[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            NAMES[sq] = "" + (char) ('a' + file(sq)) + (char) ('1' + rank(sq));
+        }
+    }
+
+    private Square() {
+    }
+
+    public static int of(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    public static int file(int sq) {
+        return sq & 7;
+    }
+
+    public static int rank(int sq) {
+        return sq >>> 3;
+    }
+
+    /** Parse "e4" into a square index, or {@link #NONE} when the string is not a square. */
+    public static int parse(String name) {
+        if (name == null || name.length() != 2) return NONE;
+        int file = name.charAt(0) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) return NONE;
+        return of(file, rank);
+    }
+
+    public static String name(int sq) {
+        return NAMES[sq];
+    }
+}
@@ -0,0 +1,28 @@
+package com.chess.engine;
+
+/** Why a position ends the game by the rules, regardless of the clocks. */
+public enum Termination {
+    /** The side to move is in check and has no legal move; the side that just moved wins. */
+    CHECKMATE,
+    STALEMATE,
+    THREEFOLD_REPETITION,
+    FIFTY_MOVE_RULE,
+    INSUFFICIENT_MATERIAL;
+
+    /**
+     * The termination of {@code position} after the last move, or null while play goes on. Mate and stalemate
+     * come first (a mate on the hundredth quiet ply still wins); the other draws are automatic: a third
+     * occurrence of a position, 100 plies without a capture or pawn move, or material that cannot mate.
+     */
+    public static Termination of(Position position) {
+        if (!MoveGenerator.hasLegalMove(position)) return position.inCheck() ? CHECKMATE : STALEMATE;
+        if (position.isInsufficientMaterial()) return INSUFFICIENT_MATERIAL;
+        if (position.halfmoveClock() >= 100) return FIFTY_MOVE_RULE;
+        if (position.repetitions() >= 3) return THREEFOLD_REPETITION;
+        return null;
+    }
+
+    public boolean isDraw() {
+        return this != CHECKMATE;
+    }
+}
@@ -0,0 +1,58 @@
+package com.chess.engine;
+
+/**
+ * Zobrist keys: one random long per piece and square, castling rights combination, en passant file and side
+ * to move. A position's hash is the XOR of the keys of its features, so {@link Position} updates it with a few
+ * XORs per move. Keys come from a fixed-seed generator and are the same on every run and node.
+ */
+public final class Zobrist {
+
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EP_FILE = new long[8];
+    private static final long SIDE;
+
+    private static long seed = 0x2545F4914F6CDD1DL;
+
+    static {
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = next();
+        }
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = next();
+        }
+        for (int i = 0; i < EP_FILE.length; i++) {
+            EP_FILE[i] = next();
+        }
+        SIDE = next();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(int piece, int sq) {
+        return PIECE_SQUARE[piece * 64 + sq];
+    }
+
+    /** Key of a castling rights mask; no rights hashes to 0. */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long epFile(int file) {
+        return EP_FILE[file];
+    }
+
+    /** XORed in when black is to move. */
+    public static long side() {
+        return SIDE;
+    }
+
+    // splitmix64
+    private static long next() {
+        long z = seed += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
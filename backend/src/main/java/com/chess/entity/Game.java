@@ -2,6 +2,7 @@ package com.chess.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -33,7 +34,7 @@ public class Game {
     @Builder.Default
     private GameStatus status = GameStatus.ACTIVE;
 
-    /** Username of the winner when status is FINISHED (null if draw or not finished) */
+    /** Username of the winner when status is FINISHED (null if drawn or not finished) */
     @Column(name = "winner_username")
     private String winnerUsername;
 
@@ -45,9 +46,36 @@ public class Game {
     @Builder.Default
     private Integer blackRemainingSeconds = 600;
 
+    /** Millisecond clocks; the *_seconds columns above are kept as a rounded-up mirror for older clients. */
+    @Column(name = "white_remaining_ms")
+    private Long whiteRemainingMs;
+
+    @Column(name = "black_remaining_ms")
+    private Long blackRemainingMs;
+
+    @Embedded
+    @Builder.Default
+    private TimeControl timeControl = TimeControl.defaults();
+
     @Column(name = "turn_started_at")
     private Instant turnStartedAt;
 
+    /** Snapshot of the current position, written with every move so reads never replay the move list. */
+    @Column(name = "fen", length = 100)
+    private String fen;
+
+    /** Number of half-moves played; the snapshot in {@link #fen} is the position after this many plies. */
+    @Column(name = "ply_count", nullable = false)
+    @ColumnDefault("0")
+    private int plyCount;
+
+    /**
+     * Moves as 16-bit codes, two bytes per ply, for games stored with {@code app.game.move-storage=packed};
+     * null when the moves are rows in game_moves.
+     */
+    @Column(name = "packed_moves", length = 16384)
+    private byte[] packedMoves;
+
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("moveNumber ASC")
     @Builder.Default
@@ -62,8 +90,28 @@ public class Game {
         if (turnStartedAt == null) turnStartedAt = Instant.now();
     }
 
+    public long remainingMs(boolean white) {
+        Long ms = white ? whiteRemainingMs : blackRemainingMs;
+        if (ms != null) return ms;
+        return (white ? whiteRemainingSeconds : blackRemainingSeconds) * 1000L;
+    }
+
+    /** Result of a finished game for white: 1, 0 or 0.5 when there is no winner. */
+    public double whiteScore() {
+        if (winnerUsername == null || winnerUsername.isEmpty()) return 0.5;
+        return winnerUsername.equals(whitePlayer.getUsername()) ? 1 : 0;
+    }
+
+    public TimeControl timeControlOrDefault() {
+        return timeControl != null ? timeControl : TimeControl.defaults();
+    }
+
     public enum GameStatus {
         ACTIVE,
-        FINISHED
+        FINISHED,
+        /** Ended by the rules without a winner: stalemate, repetition, fifty-move rule or insufficient material. */
+        DRAW,
+        /** Ended without a result because a move could not be stored (see {@link com.chess.service.MoveJournal}). */
+        ABORTED
     }
 }
@@ -4,7 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "game_moves")
+@Table(name = "game_moves", uniqueConstraints = @UniqueConstraint(name = "uk_game_moves_game_move_number",
+        columnNames = {"game_id", "move_number"}))
 @Getter
 @Setter
 @NoArgsConstructor
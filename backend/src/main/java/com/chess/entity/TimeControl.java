@@ -0,0 +1,78 @@
+package com.chess.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+/**
+ * Time control of a game, in milliseconds: base time, Fischer increment added after every move, and an
+ * optional delay. With {@link DelayMode#SIMPLE} the clock only starts once the delay has elapsed; with
+ * {@link DelayMode#BRONSTEIN} the time used is given back after the move, up to the delay.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeControl {
+
+    public static final long DEFAULT_BASE_MS = 600_000;
+    private static final long MAX_BASE_MS = 3 * 3_600_000L;
+    private static final long MAX_BONUS_MS = 60_000;
+
+    public enum DelayMode {
+        NONE,
+        SIMPLE,
+        BRONSTEIN
+    }
+
+    @Column(name = "tc_base_ms", nullable = false)
+    @ColumnDefault("600000")
+    private long baseMs = DEFAULT_BASE_MS;
+
+    @Column(name = "tc_increment_ms", nullable = false)
+    @ColumnDefault("0")
+    private long incrementMs;
+
+    @Column(name = "tc_delay_ms", nullable = false)
+    @ColumnDefault("0")
+    private long delayMs;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tc_delay_mode", nullable = false, length = 16)
+    @ColumnDefault("'NONE'")
+    private DelayMode delayMode = DelayMode.NONE;
+
+    public static TimeControl defaults() {
+        return new TimeControl();
+    }
+
+    public static TimeControl of(long baseMs, long incrementMs, DelayMode delayMode, long delayMs) {
+        if (baseMs < 1_000 || baseMs > MAX_BASE_MS) throw new IllegalArgumentException("Invalid base time");
+        if (incrementMs < 0 || incrementMs > MAX_BONUS_MS) throw new IllegalArgumentException("Invalid increment");
+        if (delayMs < 0 || delayMs > MAX_BONUS_MS) throw new IllegalArgumentException("Invalid delay");
+        DelayMode mode = delayMode != null && delayMs > 0 ? delayMode : DelayMode.NONE;
+        return new TimeControl(baseMs, incrementMs, mode == DelayMode.NONE ? 0 : delayMs, mode);
+    }
+
+    /** Time actually taken off the clock for a move that took {@code elapsedMs}. */
+    public long charge(long elapsedMs) {
+        return delayMode == DelayMode.SIMPLE ? Math.max(0, elapsedMs - delayMs) : elapsedMs;
+    }
+
+    /** Time given back after a completed move: increment, plus the Bronstein refund. */
+    public long bonus(long elapsedMs) {
+        long bonus = incrementMs;
+        if (delayMode == DelayMode.BRONSTEIN) bonus += Math.min(elapsedMs, delayMs);
+        return bonus;
+    }
+
+    /** How long a player with {@code remainingMs} can think before the flag falls. */
+    public long timeToFlag(long remainingMs) {
+        return delayMode == DelayMode.SIMPLE ? remainingMs + delayMs : remainingMs;
+    }
+}
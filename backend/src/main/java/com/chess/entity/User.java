@@ -2,6 +2,7 @@ package com.chess.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "users")
@@ -12,6 +13,10 @@ import lombok.*;
 @Builder
 public class User {
 
+    public static final double DEFAULT_RATING = 1500;
+    public static final double DEFAULT_RATING_DEVIATION = 350;
+    public static final double DEFAULT_RATING_VOLATILITY = 0.06;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -22,8 +27,28 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    /** Glicko-2 playing strength, used to pair players in matchmaking. */
+    @Column(nullable = false)
+    @ColumnDefault("1500")
+    @Builder.Default
+    private double rating = DEFAULT_RATING;
+
+    /** Uncertainty of {@code rating}; shrinks as the player plays. */
+    @Column(nullable = false)
+    @ColumnDefault("350")
+    @Builder.Default
+    private double ratingDeviation = DEFAULT_RATING_DEVIATION;
+
+    @Column(nullable = false)
+    @ColumnDefault("0.06")
+    @Builder.Default
+    private double ratingVolatility = DEFAULT_RATING_VOLATILITY;
+
     public User(String username, String password) {
         this.username = username;
         this.password = password;
+        this.rating = DEFAULT_RATING;
+        this.ratingDeviation = DEFAULT_RATING_DEVIATION;
+        this.ratingVolatility = DEFAULT_RATING_VOLATILITY;
     }
 }
@@ -0,0 +1,60 @@
+package com.chess.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Totals over a user's finished games, kept up to date as games end (see {@code RatingService}) so that
+ * stats are a primary-key read instead of a count over the games table.
+ */
+@Entity
+@Table(name = "user_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserStats {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private int gamesPlayed;
+
+    @Column(nullable = false)
+    private int wins;
+
+    @Column(nullable = false)
+    private int losses;
+
+    @Column(nullable = false)
+    private int draws;
+
+    /** Consecutive wins (positive) or losses (negative) up to the last game; a draw resets it. */
+    @Column(nullable = false)
+    private int currentStreak;
+
+    @Column(nullable = false)
+    private int bestWinStreak;
+
+    public UserStats(Long userId) {
+        this.userId = userId;
+    }
+
+    /** Count one more game; {@code score} is 1, 0.5 or 0. */
+    public void record(double score) {
+        gamesPlayed++;
+        if (score > 0.5) {
+            wins++;
+            currentStreak = currentStreak > 0 ? currentStreak + 1 : 1;
+            bestWinStreak = Math.max(bestWinStreak, currentStreak);
+        } else if (score < 0.5) {
+            losses++;
+            currentStreak = currentStreak < 0 ? currentStreak - 1 : -1;
+        } else {
+            draws++;
+            currentStreak = 0;
+        }
+    }
+}
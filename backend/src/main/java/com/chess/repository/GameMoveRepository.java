@@ -2,9 +2,18 @@ package com.chess.repository;
 
 import com.chess.entity.GameMove;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface GameMoveRepository extends JpaRepository<GameMove, Long> {
     List<GameMove> findByGameIdOrderByMoveNumberAsc(Long gameId);
+
+    List<GameMove> findByGameIdInOrderByGameIdAscMoveNumberAsc(Collection<Long> gameIds);
+
+    @Modifying
+    @Query("DELETE FROM GameMove m WHERE m.game.id IN :gameIds")
+    int deleteByGameIds(Collection<Long> gameIds);
 }
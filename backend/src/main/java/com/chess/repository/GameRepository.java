@@ -2,9 +2,12 @@ package com.chess.repository;
 
 import com.chess.entity.Game;
 import com.chess.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,13 +15,61 @@ public interface GameRepository extends JpaRepository<Game, Long> {
 
     List<Game> findByWhitePlayerOrBlackPlayerAndStatus(User white, User black, Game.GameStatus status);
 
-    @Query("SELECT g FROM Game g WHERE (g.whitePlayer = :user OR g.blackPlayer = :user) AND g.status = 'ACTIVE' ORDER BY g.createdAt DESC")
+    @Query("SELECT g FROM Game g JOIN FETCH g.whitePlayer JOIN FETCH g.blackPlayer WHERE g.id = :id")
+    Optional<Game> findWithPlayersById(Long id);
+
+    @Query("SELECT g FROM Game g JOIN FETCH g.whitePlayer JOIN FETCH g.blackPlayer "
+            + "WHERE (g.whitePlayer = :user OR g.blackPlayer = :user) AND g.status = 'ACTIVE' ORDER BY g.createdAt DESC")
     List<Game> findActiveGamesByUser(User user);
 
-    @Query("SELECT g FROM Game g WHERE (g.whitePlayer = :user OR g.blackPlayer = :user) AND g.status = 'FINISHED' ORDER BY g.createdAt DESC")
-    List<Game> findFinishedGamesByUser(User user);
+    /**
+     * Keyset page of finished or drawn games, newest first: pass the id of the last game of the previous page as
+     * {@code beforeId} (null for the first page) and the page size through {@code page}.
+     */
+    @Query("SELECT g FROM Game g JOIN FETCH g.whitePlayer JOIN FETCH g.blackPlayer "
+            + "WHERE (g.whitePlayer = :user OR g.blackPlayer = :user) AND g.status <> 'ACTIVE' "
+            + "AND (:beforeId IS NULL OR g.id < :beforeId) ORDER BY g.id DESC")
+    List<Game> findFinishedGamesByUser(User user, Long beforeId, Pageable page);
+
+    /** Finished or drawn games in id order, a page after {@code afterId} at a time (stats backfill); aborted ones have no result. */
+    @Query("SELECT g FROM Game g JOIN FETCH g.whitePlayer JOIN FETCH g.blackPlayer "
+            + "WHERE g.status IN ('FINISHED', 'DRAW') AND g.id > :afterId ORDER BY g.id")
+    List<Game> findFinishedAfter(Long afterId, Pageable page);
 
     Optional<Game> findByIdAndStatus(Long id, Game.GameStatus status);
 
     List<Game> findByStatus(Game.GameStatus status);
+
+    /**
+     * Per-move update of the clocks and the position snapshot; touches only those columns, and only while the
+     * game is ACTIVE and still at the ply the move was validated against.
+     */
+    @Modifying
+    @Query("UPDATE Game g SET g.whiteRemainingMs = :whiteMs, g.blackRemainingMs = :blackMs, "
+            + "g.whiteRemainingSeconds = :whiteSeconds, g.blackRemainingSeconds = :blackSeconds, "
+            + "g.turnStartedAt = :turnStartedAt, g.fen = :fen, g.plyCount = :plyCount "
+            + "WHERE g.id = :id AND g.status = 'ACTIVE' AND g.plyCount = :plyCount - 1")
+    int updateAfterMove(Long id, long whiteMs, long blackMs, int whiteSeconds, int blackSeconds, Instant turnStartedAt,
+                        String fen, int plyCount);
+
+    /** End an ACTIVE game on the board (mate or a draw); only the result columns are written. */
+    @Modifying
+    @Query("UPDATE Game g SET g.status = :status, g.winnerUsername = :winnerUsername WHERE g.id = :id AND g.status = 'ACTIVE'")
+    int finishActive(Long id, Game.GameStatus status, String winnerUsername);
+
+    /** Append one or more packed moves to a game stored with packed moves. */
+    @Modifying
+    @Query(value = "UPDATE games SET packed_moves = packed_moves || CAST(:moves AS VARBINARY) WHERE id = :id AND packed_moves IS NOT NULL",
+            nativeQuery = true)
+    int appendPackedMoves(Long id, byte[] moves);
+
+    @Query("SELECT g.packedMoves FROM Game g WHERE g.id = :id")
+    Optional<byte[]> findPackedMovesById(Long id);
+
+    /** Games whose moves are still rows, in id order after {@code afterId} (packed move backfill). */
+    @Query("SELECT g FROM Game g WHERE g.packedMoves IS NULL AND g.id > :afterId ORDER BY g.id")
+    List<Game> findUnpackedAfter(Long afterId, Pageable page);
+
+    /** Games created before position snapshots were stored; see {@code PositionSnapshotBackfill}. */
+    List<Game> findByFenIsNull(Pageable page);
 }
@@ -2,12 +2,23 @@ package com.chess.repository;
 
 import com.chess.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByUsernameIgnoreCase(String username);
+    List<User> findByUsernameIn(Collection<String> usernames);
+    List<User> findByRatingDeviationLessThan(double deviation);
     boolean existsByUsername(String username);
     boolean existsByUsernameIgnoreCase(String username);
+
+    /** Writes only the rating columns, so a rating batch never overwrites other changes to the row. */
+    @Modifying
+    @Query("UPDATE User u SET u.rating = :rating, u.ratingDeviation = :deviation, u.ratingVolatility = :volatility WHERE u.id = :id")
+    int updateRating(Long id, double rating, double deviation, double volatility);
 }
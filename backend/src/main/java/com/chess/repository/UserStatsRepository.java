@@ -0,0 +1,7 @@
+package com.chess.repository;
+
+import com.chess.entity.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+}
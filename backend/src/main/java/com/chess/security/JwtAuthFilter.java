@@ -7,9 +7,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -18,14 +17,19 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Authenticates REST requests from the bearer token alone: the principal is the username the token was issued
+ * for, as on the WebSocket side, so no user lookup is needed per request.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -37,15 +41,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 if (request.getRequestURI().startsWith("/api") && !request.getRequestURI().startsWith("/api/auth/")) {
                     log.debug("JWT missing for {}", request.getRequestURI());
                 }
-            } else if (!jwtUtil.validateToken(jwt)) {
-                log.debug("JWT invalid or expired for {}", request.getRequestURI());
             } else {
-                String username = jwtUtil.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                Optional<JwtUtil.VerifiedToken> token = jwtUtil.verify(jwt);
+                if (token.isEmpty()) {
+                    log.debug("JWT invalid or expired for {}", request.getRequestURI());
+                } else {
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                            token.get().username(), null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
             }
         } catch (Exception e) {
             log.debug("JWT auth failed for {}: {}", request.getRequestURI(), e.getMessage());
@@ -3,22 +3,44 @@ package com.chess.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Issues and verifies tokens. {@link #verify} checks the signature once per token: verified tokens are
+ * remembered, up to a bound, until their own expiry, so clients presenting the same token on every request
+ * are not re-verified each time.
+ */
 @Component
 public class JwtUtil {
 
+    /** What a verified token says; the token's signature and expiry have been checked. */
+    public record VerifiedToken(String username, Long userId, long expiresAtMs) {
+        boolean isExpired(long nowMs) {
+            return nowMs >= expiresAtMs;
+        }
+    }
+
     private final SecretKey key;
     private final long expirationMs;
+    private final JwtParser parser;
+    private final int cacheSize;
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
 
     public JwtUtil(@Value("${app.jwt.secret}") String secret,
-                   @Value("${app.jwt.expiration-ms}") long expirationMs) {
+                   @Value("${app.jwt.expiration-ms}") long expirationMs,
+                   @Value("${app.jwt.cache-size:10000}") int cacheSize) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.cacheSize = cacheSize;
     }
 
     public String generateToken(String username, Long userId) {
@@ -31,22 +53,34 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        return Jwts.parser().verifyWith(key).build()
-                .parseSignedClaims(token).getPayload().getSubject();
-    }
-
-    public Long getUserIdFromToken(String token) {
-        return Jwts.parser().verifyWith(key).build()
-                .parseSignedClaims(token).getPayload().get("userId", Long.class);
-    }
-
-    public boolean validateToken(String token) {
+    /** The claims of {@code token}, or empty if it is malformed, badly signed or expired. */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) return Optional.empty();
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            if (!cached.isExpired(now)) return Optional.of(cached);
+            verified.remove(token, cached);
+            return Optional.empty();
+        }
+        VerifiedToken parsed;
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            parsed = new VerifiedToken(claims.getSubject(), claims.get("userId", Long.class),
+                    expiration != null ? expiration.getTime() : now + expirationMs);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
+        // When full, tokens are still verified, just not remembered until the next sweep frees room.
+        if (verified.size() < cacheSize) verified.put(token, parsed);
+        return Optional.of(parsed);
+    }
+
+    /** Forget tokens that have expired. */
+    @Scheduled(fixedRate = 60_000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(t -> t.isExpired(now));
     }
 }
@@ -1,15 +1,22 @@
 package com.chess.service;
 
+import com.chess.engine.Move;
+import com.chess.engine.MoveGenerator;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.engine.Square;
+import com.chess.engine.Termination;
+
 import java.util.List;
 import java.util.regex.Pattern;
 
 /**
- * Minimal chess logic: FEN handling and basic move validation (Level 3).
+ * Chess logic facade over the bitboard {@link Position}: FEN handling, move validation and end-of-game detection.
  * Starting FEN: rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1
  */
 public final class ChessBoardService {
 
-    private static final String INITIAL_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String INITIAL_FEN = Position.START_FEN;
     private static final Pattern SQUARE = Pattern.compile("^[a-h][1-8]$");
 
     public static String getInitialFen() {
@@ -21,106 +28,92 @@ public final class ChessBoardService {
     }
 
     /**
-     * Apply a move to FEN and return new FEN. Simple implementation: move piece from->to.
-     * Does not handle en passant, castling, promotion fully (handles promotion piece only).
+     * Apply a move to FEN and return new FEN. Castling moves the rook, en passant removes the captured pawn,
+     * and a pawn reaching the last rank without a promotion piece becomes a queen.
      */
     public static String applyMove(String fen, String from, String to, String promotion) {
         if (fen == null || from == null || to == null) return fen;
-        String[] parts = fen.split(" ", 6);
-        String board = parts[0];
-        String toMove = parts.length > 1 ? parts[1] : "w";
-        String castling = parts.length > 2 ? parts[2] : "KQkq";
-        String enPassant = parts.length > 3 ? parts[3] : "-";
-        String half = parts.length > 4 ? parts[4] : "0";
-        String full = parts.length > 5 ? parts[5] : "1";
-
-        char[][] grid = fenToGrid(board);
-        int fromFile = from.charAt(0) - 'a';
-        int fromRank = 8 - (from.charAt(1) - '0');
-        int toFile = to.charAt(0) - 'a';
-        int toRank = 8 - (to.charAt(1) - '0');
-
-        char piece = grid[fromRank][fromFile];
-        if (promotion != null && !promotion.isEmpty() && Character.toLowerCase(piece) == 'p') {
-            piece = toMove.equals("w") ? promotion.charAt(0) : Character.toLowerCase(promotion.charAt(0));
-        }
-        grid[fromRank][fromFile] = '.';
-        grid[toRank][toFile] = piece;
-
-        String newBoard = gridToFen(grid);
-        String nextToMove = "w".equals(toMove) ? "b" : "w";
-        int halfMove = Integer.parseInt(half) + 1;
-        int fullMove = "b".equals(nextToMove) ? Integer.parseInt(full) + 1 : Integer.parseInt(full);
-        return newBoard + " " + nextToMove + " " + castling + " " + enPassant + " " + halfMove + " " + fullMove;
+        Position position = Position.fromFen(fen);
+        applyMove(position, from, to, promotion);
+        return position.toFen();
+    }
+
+    /** Apply a move in place; no FEN is built. */
+    public static void applyMove(Position position, String from, String to, String promotion) {
+        position.makeMove(toMove(position, from, to, promotion));
     }
 
     public static String applyMoves(String initialFen, List<String> fromSquares, List<String> toSquares, List<String> promotions) {
-        String fen = initialFen;
-        for (int i = 0; i < fromSquares.size(); i++) {
-            String p = (promotions != null && i < promotions.size()) ? promotions.get(i) : null;
-            fen = applyMove(fen, fromSquares.get(i), toSquares.get(i), p);
-        }
-        return fen;
+        return replay(initialFen, fromSquares, toSquares, promotions).toFen();
     }
 
-    private static char[][] fenToGrid(String board) {
-        char[][] grid = new char[8][8];
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                grid[r][c] = '.';
-            }
-        }
-        int row = 0, col = 0;
-        for (char c : board.toCharArray()) {
-            if (c == '/') {
-                row++;
-                col = 0;
-            } else if (Character.isDigit(c)) {
-                col += c - '0';
-            } else {
-                grid[row][col++] = c;
-            }
+    /** Replay a move list onto a single position; FEN is only produced if the caller asks for it. */
+    public static Position replay(String initialFen, List<String> fromSquares, List<String> toSquares, List<String> promotions) {
+        Position position = Position.fromFen(initialFen);
+        for (int i = 0; i < fromSquares.size(); i++) {
+            String p = (promotions != null && i < promotions.size()) ? promotions.get(i) : null;
+            applyMove(position, fromSquares.get(i), toSquares.get(i), p);
         }
-        return grid;
+        return position;
     }
 
-    private static String gridToFen(char[][] grid) {
-        StringBuilder sb = new StringBuilder();
-        for (int r = 0; r < 8; r++) {
-            int empty = 0;
-            for (int c = 0; c < 8; c++) {
-                if (grid[r][c] == '.') {
-                    empty++;
-                } else {
-                    if (empty > 0) {
-                        sb.append(empty);
-                        empty = 0;
-                    }
-                    sb.append(grid[r][c]);
-                }
+    /** Encode square names and an optional promotion letter into a packed {@link Move}. */
+    public static int toMove(Position position, String from, String to, String promotion) {
+        int fromSq = Square.parse(from);
+        int toSq = Square.parse(to);
+        if (fromSq == Square.NONE || toSq == Square.NONE) throw new IllegalArgumentException("Invalid square");
+        int piece = position.pieceAt(fromSq);
+        if (piece == Piece.NONE) throw new IllegalArgumentException("No piece on " + from);
+        int promo = 0;
+        int lastRank = Piece.color(piece) == Piece.WHITE ? 7 : 0;
+        if (Piece.type(piece) == Piece.PAWN && Square.rank(toSq) == lastRank) {
+            promo = Piece.QUEEN;
+            if (promotion != null && !promotion.isEmpty()) {
+                int type = Piece.typeFromChar(promotion.charAt(0));
+                if (type >= Piece.KNIGHT && type <= Piece.QUEEN) promo = type;
             }
-            if (empty > 0) sb.append(empty);
-            if (r < 7) sb.append('/');
         }
-        return sb.toString();
+        return Move.of(fromSq, toSq, promo);
     }
 
     /**
-     * Basic validation: from/to squares valid, piece at from, destination empty or capture.
+     * Full legality check: the side to move must match {@code isWhite} and the move must be legal in the position
+     * (piece movement, check, pins, castling through attacked squares, en passant). A pawn move to the last rank
+     * without a promotion piece is validated as a queen promotion.
      */
     public static boolean isMoveValid(String fen, String from, String to, boolean isWhite) {
-        if (!isValidSquare(from) || !isValidSquare(to)) return false;
-        char[][] grid = fenToGrid(fen.split(" ")[0]);
-        int fromR = 8 - (from.charAt(1) - '0');
-        int fromC = from.charAt(0) - 'a';
-        int toR = 8 - (to.charAt(1) - '0');
-        int toC = to.charAt(0) - 'a';
-        char p = grid[fromR][fromC];
-        if (p == '.') return false;
-        boolean pieceWhite = Character.isUpperCase(p);
-        if (pieceWhite != isWhite) return false;
-        char target = grid[toR][toC];
-        if (target != '.' && (Character.isUpperCase(target) == isWhite)) return false;
-        return true;
+        return isMoveValid(fen, from, to, null, isWhite);
+    }
+
+    public static boolean isMoveValid(String fen, String from, String to, String promotion, boolean isWhite) {
+        if (fen == null || !isValidSquare(from) || !isValidSquare(to)) return false;
+        return isMoveValid(Position.fromFen(fen), from, to, promotion, isWhite);
+    }
+
+    public static boolean isMoveValid(Position position, String from, String to, String promotion, boolean isWhite) {
+        if (position.whiteToMove() != isWhite) return false;
+        int fromSq = Square.parse(from);
+        int toSq = Square.parse(to);
+        if (fromSq == Square.NONE || toSq == Square.NONE) return false;
+        if (position.pieceAt(fromSq) == Piece.NONE) return false;
+        return MoveGenerator.isLegal(position, toMove(position, from, to, promotion));
+    }
+
+    /** How the game ends by the rules after the last move played on {@code position}, or null while it goes on. */
+    public static Termination termination(Position position) {
+        return Termination.of(position);
+    }
+
+    /** Upper-case letter of the promotion piece of an encoded move ("Q", "N", ...), or null when it is none. */
+    public static String promotionLetter(int move) {
+        int promotion = Move.promotion(move);
+        return promotion == 0 ? null : String.valueOf(Piece.typeChar(promotion));
+    }
+
+    /** Upper-case letter of the piece standing on {@code square} ("P", "N", ...), or null when empty. */
+    public static String pieceLetter(Position position, String square) {
+        int sq = Square.parse(square);
+        int piece = sq == Square.NONE ? Piece.NONE : position.pieceAt(sq);
+        return piece == Piece.NONE ? null : String.valueOf(Piece.typeChar(Piece.type(piece)));
     }
 }
@@ -0,0 +1,59 @@
+package com.chess.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Flag-fall deadlines of ACTIVE games, ordered by time. Rescheduling a game leaves its old heap entry in
+ * place and records the new deadline as current; stale entries are skipped when they surface, and the
+ * heap is compacted when they start to dominate. Polling costs O(expired games), not O(active games).
+ */
+@Component
+public class ClockDeadlineQueue {
+
+    private record Deadline(long atMs, Long gameId) {
+    }
+
+    private final PriorityQueue<Deadline> heap = new PriorityQueue<>(Comparator.comparingLong(Deadline::atMs));
+    private final Map<Long, Long> current = new HashMap<>();
+
+    public synchronized void schedule(Long gameId, long deadlineMs) {
+        Long previous = current.put(gameId, deadlineMs);
+        if (previous != null && previous == deadlineMs) return;
+        heap.add(new Deadline(deadlineMs, gameId));
+        if (heap.size() > 64 && heap.size() > 2 * current.size()) compact();
+    }
+
+    public synchronized void cancel(Long gameId) {
+        current.remove(gameId);
+    }
+
+    /** Remove and return the games whose current deadline is at or before {@code nowMs}. */
+    public synchronized List<Long> pollExpired(long nowMs) {
+        List<Long> expired = new ArrayList<>();
+        while (!heap.isEmpty() && heap.peek().atMs() <= nowMs) {
+            Deadline d = heap.poll();
+            Long at = current.get(d.gameId());
+            if (at != null && at == d.atMs()) {
+                current.remove(d.gameId());
+                expired.add(d.gameId());
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return current.size();
+    }
+
+    private void compact() {
+        heap.clear();
+        current.forEach((gameId, at) -> heap.add(new Deadline(at, gameId)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.chess.service;
+
+import com.chess.config.BoundedExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One mailbox per game: the commands of a game (move, resignation, flag fall) run one at a time in the order they
+ * were submitted, each including its commit, while different games run in parallel on a shared bounded pool.
+ * Two moves of the same game therefore never interleave, whatever the database isolation level.
+ * <p>
+ * A game has a mailbox only while it has work: the mailbox is created by the first command and removed when
+ * its last command has run, so the presence of a mailbox means a thread is draining it or about to.
+ */
+@Service
+public class GameActors implements MeterBinder {
+
+    /** Commands run for one game before its thread is handed to other games. */
+    private static final int MAX_BATCH = 16;
+
+    private record Command<T>(Callable<T> action, CompletableFuture<T> result) {
+        void run() {
+            try {
+                result.complete(action.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final BoundedExecutor executor;
+    private final int mailboxCapacity;
+    private final Map<Long, Queue<Command<?>>> mailboxes = new ConcurrentHashMap<>();
+
+    public GameActors(@Value("${app.game.executor.pool-size:8}") int poolSize,
+                      @Value("${app.game.executor.queue-capacity:1000}") int queueCapacity,
+                      @Value("${app.game.mailbox-capacity:32}") int mailboxCapacity) {
+        this.executor = new BoundedExecutor("games", poolSize, queueCapacity);
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    @PostConstruct
+    void start() {
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queue {@code action} behind the earlier commands of {@code gameId}. The future fails with a
+     * {@link RejectedExecutionException} when the game's mailbox or the pool is full.
+     */
+    public <T> CompletableFuture<T> submit(Long gameId, Callable<T> action) {
+        Command<T> command = new Command<>(action, new CompletableFuture<>());
+        boolean[] created = {false};
+        boolean[] full = {false};
+        mailboxes.compute(gameId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                created[0] = true;
+            } else if (queue.size() >= mailboxCapacity) {
+                full[0] = true;
+                return queue;
+            }
+            queue.add(command);
+            return queue;
+        });
+        if (full[0]) {
+            command.result().completeExceptionally(new RejectedExecutionException("Too many pending commands for game " + gameId));
+        } else if (created[0]) {
+            schedule(gameId);
+        }
+        return command.result();
+    }
+
+    /** Run {@code action} in turn and wait for it; its exception is rethrown as is. */
+    public <T> T call(Long gameId, Callable<T> action) {
+        try {
+            return submit(gameId, action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        executor.bindTo(registry);
+        Gauge.builder("game.mailboxes", mailboxes, Map::size)
+                .description("Games with commands queued or running").register(registry);
+    }
+
+    private void schedule(Long gameId) {
+        try {
+            executor.execute(() -> drain(gameId));
+        } catch (RejectedExecutionException e) {
+            Queue<Command<?>> queue = mailboxes.remove(gameId);
+            if (queue != null) queue.forEach(c -> c.result().completeExceptionally(e));
+        }
+    }
+
+    private void drain(Long gameId) {
+        for (int i = 0; i < MAX_BATCH; i++) {
+            Command<?> next = poll(gameId);
+            if (next == null) return;
+            next.run();
+        }
+        schedule(gameId);
+    }
+
+    /** The next command, or null after removing the empty mailbox. */
+    private Command<?> poll(Long gameId) {
+        Command<?>[] next = new Command<?>[1];
+        mailboxes.computeIfPresent(gameId, (id, queue) -> {
+            next[0] = queue.poll();
+            return next[0] == null ? null : queue;
+        });
+        return next[0];
+    }
+}
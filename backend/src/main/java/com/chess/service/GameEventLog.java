@@ -0,0 +1,77 @@
+package com.chess.service;
+
+import com.chess.dto.GameEventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes game events on /topic/game/{id} and keeps the last few of each ACTIVE game in a ring buffer
+ * indexed by sequence number, so a client that missed frames can be sent just the missing deltas.
+ */
+@Component
+public class GameEventLog {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int capacity;
+    private final Map<Long, Ring> rings = new ConcurrentHashMap<>();
+
+    public GameEventLog(SimpMessagingTemplate messagingTemplate,
+                        @Value("${app.game.event-buffer-size:64}") int capacity) {
+        this.messagingTemplate = messagingTemplate;
+        this.capacity = capacity;
+    }
+
+    public void publish(GameEventDto event) {
+        if (event.getType() == GameEventDto.Type.GAME_OVER) {
+            // Nothing follows; late clients get a snapshot with the final state.
+            rings.remove(event.getGameId());
+        } else {
+            rings.computeIfAbsent(event.getGameId(), id -> new Ring(capacity)).add(event);
+        }
+        messagingTemplate.convertAndSend("/topic/game/" + event.getGameId(), event);
+    }
+
+    /**
+     * Events after {@code fromSeq}, in order; empty if the client is up to date. Returns
+     * {@link Optional#empty()} when some of them are no longer buffered and a snapshot is needed.
+     */
+    public Optional<List<GameEventDto>> since(Long gameId, long fromSeq) {
+        Ring ring = rings.get(gameId);
+        return ring == null ? Optional.empty() : ring.since(fromSeq);
+    }
+
+    public void evict(Long gameId) {
+        rings.remove(gameId);
+    }
+
+    private static final class Ring {
+        private final GameEventDto[] events;
+        private long lastSeq;
+
+        Ring(int capacity) {
+            events = new GameEventDto[capacity];
+        }
+
+        synchronized void add(GameEventDto event) {
+            events[(int) (event.getSeq() % events.length)] = event;
+            lastSeq = Math.max(lastSeq, event.getSeq());
+        }
+
+        synchronized Optional<List<GameEventDto>> since(long fromSeq) {
+            List<GameEventDto> missing = new ArrayList<>();
+            for (long seq = Math.max(fromSeq, 0) + 1; seq <= lastSeq; seq++) {
+                GameEventDto event = events[(int) (seq % events.length)];
+                if (event == null || event.getSeq() != seq) return Optional.empty();
+                missing.add(event);
+            }
+            return Optional.of(missing);
+        }
+    }
+}
@@ -1,176 +1,633 @@
 package com.chess.service;
 
+import com.chess.cluster.ClusterBus;
 import com.chess.dto.GameDto;
+import com.chess.dto.GameEventDto;
 import com.chess.dto.MoveDto;
+import com.chess.engine.Position;
+import com.chess.engine.Termination;
 import com.chess.entity.Game;
 import com.chess.entity.GameMove;
+import com.chess.entity.TimeControl;
 import com.chess.entity.User;
 import com.chess.repository.GameMoveRepository;
 import com.chess.repository.GameRepository;
 import com.chess.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class GameService {
 
     private final GameRepository gameRepository;
     private final GameMoveRepository moveRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final GameEventLog gameEvents;
+    private final LiveGameCache liveGames;
+    private final ClockDeadlineQueue clockDeadlines;
+    private final LagCompensationService lagCompensation;
+    private final ClusterBus clusterBus;
+    private final RatingService ratings;
+    private final MoveJournal moveJournal;
+    private final GameActors gameActors;
+
+    private static final String CLUSTER_CHANNEL = "games";
+
+    /** rows: one game_moves row per move; packed: new games keep their moves in {@link Game#getPackedMoves()}. */
+    @Value("${app.game.move-storage:rows}")
+    private String moveStorage;
+
+    /** Two players to be put in a new game. */
+    public record Pairing(String whiteUsername, String blackUsername, TimeControl timeControl) {
+    }
+
+    /** Another node changed this game: its live state here is stale. */
+    public record GameChanged(Long gameId) {
+    }
+
+    @PostConstruct
+    void subscribe() {
+        clusterBus.subscribe(CLUSTER_CHANNEL, GameChanged.class, (node, event) -> evictStale(event.gameId()));
+        moveJournal.onUnstorable(this::abortUnstorable);
+    }
+
+    /** The game moved on through another node: drop its live state and the events buffered here. */
+    private void evictStale(Long gameId) {
+        liveGames.evict(gameId);
+        gameEvents.evict(gameId);
+    }
 
-    @Transactional
     public Game createGame(String whiteUsername, String blackUsername) {
+        return createGame(whiteUsername, blackUsername, TimeControl.defaults());
+    }
+
+    @Transactional
+    public Game createGame(String whiteUsername, String blackUsername, TimeControl timeControl) {
         User white = userRepository.findByUsername(whiteUsername)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + whiteUsername));
         User black = userRepository.findByUsername(blackUsername)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + blackUsername));
-        Game game = Game.builder()
+        Game saved = gameRepository.save(newGame(white, black, timeControl));
+        LiveGame live = newLiveGame(saved, Position.start(), 0);
+        afterCommit(() -> {
+            liveGames.put(live);
+            scheduleClock(live);
+        });
+        return saved;
+    }
+
+    /** Creates several games in one transaction, loading all their players with one query (matchmaking). */
+    @Transactional
+    public List<Game> createGames(List<Pairing> pairings) {
+        Set<String> usernames = new HashSet<>();
+        pairings.forEach(p -> {
+            usernames.add(p.whiteUsername());
+            usernames.add(p.blackUsername());
+        });
+        Map<String, User> users = userRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(User::getUsername, u -> u));
+        List<Game> games = new ArrayList<>(pairings.size());
+        for (Pairing p : pairings) {
+            User white = users.get(p.whiteUsername());
+            User black = users.get(p.blackUsername());
+            if (white == null || black == null) {
+                throw new IllegalArgumentException("User not found: " + (white == null ? p.whiteUsername() : p.blackUsername()));
+            }
+            games.add(newGame(white, black, p.timeControl()));
+        }
+        List<Game> saved = gameRepository.saveAll(games);
+        List<LiveGame> lives = saved.stream().map(g -> newLiveGame(g, Position.start(), 0)).toList();
+        afterCommit(() -> lives.forEach(live -> {
+            liveGames.put(live);
+            scheduleClock(live);
+        }));
+        return saved;
+    }
+
+    public boolean isPackedMoveStorage() {
+        return "packed".equalsIgnoreCase(moveStorage);
+    }
+
+    private Game newGame(User white, User black, TimeControl timeControl) {
+        return Game.builder()
                 .whitePlayer(white)
                 .blackPlayer(black)
                 .status(Game.GameStatus.ACTIVE)
-                .whiteRemainingSeconds(600)
-                .blackRemainingSeconds(600)
+                .timeControl(timeControl)
+                .whiteRemainingMs(timeControl.getBaseMs())
+                .blackRemainingMs(timeControl.getBaseMs())
+                .whiteRemainingSeconds(toSeconds(timeControl.getBaseMs()))
+                .blackRemainingSeconds(toSeconds(timeControl.getBaseMs()))
                 .turnStartedAt(Instant.now())
+                .fen(Position.START_FEN)
+                .plyCount(0)
+                .packedMoves(isPackedMoveStorage() ? PackedMoves.EMPTY : null)
                 .build();
-        return gameRepository.save(game);
     }
 
-    public GameDto getGame(Long gameId, String username) {
-        Game game = gameRepository.findById(gameId)
+    /** Reads the stored position snapshot; the move list is only queried when {@code includeMoves} is set. */
+    public GameDto getGame(Long gameId, String username, boolean includeMoves) {
+        Game game = gameRepository.findWithPlayersById(gameId)
                 .orElseThrow(() -> new IllegalArgumentException("Game not found"));
-        List<GameMove> moves = moveRepository.findByGameIdOrderByMoveNumberAsc(gameId);
-        List<MoveDto> moveDtos = moves.stream().map(MoveDto::fromEntity).collect(Collectors.toList());
-        List<String> fromList = moves.stream().map(GameMove::getFromSquare).collect(Collectors.toList());
-        List<String> toList = moves.stream().map(GameMove::getToSquare).collect(Collectors.toList());
-        List<String> promos = moves.stream().map(GameMove::getPromotion).collect(Collectors.toList());
-        String fen = ChessBoardService.applyMoves(ChessBoardService.getInitialFen(), fromList, toList, promos);
-        GameDto dto = GameDto.fromEntity(game, moveDtos, fen);
-        if (game.getStatus() == Game.GameStatus.ACTIVE && game.getTurnStartedAt() != null) {
-            int moveCount = moves.size();
-            boolean whiteToMove = moveCount % 2 == 0;
-            long elapsedSec = Instant.now().getEpochSecond() - game.getTurnStartedAt().getEpochSecond();
-            int whiteRem = Math.max(0, game.getWhiteRemainingSeconds() - (whiteToMove ? (int) elapsedSec : 0));
-            int blackRem = Math.max(0, game.getBlackRemainingSeconds() - (!whiteToMove ? (int) elapsedSec : 0));
-            dto.setWhiteRemainingSeconds(whiteRem);
-            dto.setBlackRemainingSeconds(blackRem);
+        List<MoveDto> moves = null;
+        if (includeMoves) {
+            moves = game.getPackedMoves() != null ? PackedMoves.decode(game.getPackedMoves()) : getMoveRows(gameId);
         }
-        return dto;
+        return toDto(game, moves);
+    }
+
+    public List<MoveDto> getMoves(Long gameId) {
+        return gameRepository.findPackedMovesById(gameId)
+                .map(PackedMoves::decode)
+                .orElseGet(() -> getMoveRows(gameId));
+    }
+
+    private List<MoveDto> getMoveRows(Long gameId) {
+        return moveRepository.findByGameIdOrderByMoveNumberAsc(gameId).stream()
+                .map(MoveDto::fromEntity)
+                .collect(Collectors.toList());
     }
 
     public List<GameDto> getActiveGamesForUser(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        List<Game> games = gameRepository.findActiveGamesByUser(user);
-        List<GameDto> result = new ArrayList<>();
-        for (Game g : games) {
-            result.add(getGame(g.getId(), username));
-        }
-        return result;
+        return toDtos(gameRepository.findActiveGamesByUser(user));
     }
 
-    public List<GameDto> getFinishedGamesForUser(String username) {
+    /** One keyset page of finished games, newest first; {@code beforeId} is the last id of the previous page. */
+    public List<GameDto> getFinishedGamesForUser(String username, Long beforeId, int limit) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        List<Game> games = gameRepository.findFinishedGamesByUser(user);
-        List<GameDto> result = new ArrayList<>();
+        return toDtos(gameRepository.findFinishedGamesByUser(user, beforeId, PageRequest.of(0, limit)));
+    }
+
+    private List<GameDto> toDtos(List<Game> games) {
+        List<GameDto> result = new ArrayList<>(games.size());
         for (Game g : games) {
-            result.add(getGame(g.getId(), username));
+            result.add(toDto(g, null));
         }
         return result;
     }
 
+    private GameDto toDto(Game game, List<MoveDto> moves) {
+        GameDto dto = GameDto.fromEntity(game, moves);
+        if (game.getStatus() == Game.GameStatus.ACTIVE && game.getTurnStartedAt() != null) {
+            boolean whiteToMove = game.getPlyCount() % 2 == 0;
+            long elapsedMs = game.timeControlOrDefault().charge(Instant.now().toEpochMilli() - game.getTurnStartedAt().toEpochMilli());
+            long whiteRem = Math.max(0, game.remainingMs(true) - (whiteToMove ? elapsedMs : 0));
+            long blackRem = Math.max(0, game.remainingMs(false) - (!whiteToMove ? elapsedMs : 0));
+            dto.setRemainingMs(whiteRem, blackRem);
+        }
+        return dto;
+    }
+
     @Transactional
-    public GameMove recordMove(Long gameId, String username, int moveNumber, String from, String to, String piece, String promotion) {
-        Game game = gameRepository.findByIdAndStatus(gameId, Game.GameStatus.ACTIVE)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found or finished"));
-        List<GameMove> existing = moveRepository.findByGameIdOrderByMoveNumberAsc(gameId);
-        if (existing.size() != moveNumber) {
-            throw new IllegalArgumentException("Invalid move number");
+    public GameMove recordMove(Long gameId, String username, int moveNumber, String from, String to, String promotion) {
+        LiveGame live = liveGame(gameId);
+        if (live.getMoveCount() < moveNumber) {
+            // Behind the client: moves were played through another node. Reload from the database.
+            evictStale(gameId);
+            live = liveGame(gameId);
         }
-        boolean isWhite = game.getWhitePlayer().getUsername().equals(username);
-        String currentFen = ChessBoardService.getInitialFen();
-        List<String> fromList = existing.stream().map(GameMove::getFromSquare).collect(Collectors.toList());
-        List<String> toList = existing.stream().map(GameMove::getToSquare).collect(Collectors.toList());
-        List<String> promos = existing.stream().map(GameMove::getPromotion).collect(Collectors.toList());
-        currentFen = ChessBoardService.applyMoves(currentFen, fromList, toList, promos);
-        if (!ChessBoardService.isMoveValid(currentFen, from, to, isWhite)) {
-            throw new IllegalArgumentException("Invalid move");
+        synchronized (live) {
+            if (live.isFinished() || live.getTermination() != null) {
+                throw new IllegalArgumentException("Game not found or finished");
+            }
+            if (live.getMoveCount() != moveNumber) {
+                throw new IllegalArgumentException("Invalid move number");
+            }
+            if (!live.isPlayer(username)) {
+                throw new IllegalArgumentException("Not a player in this game");
+            }
+            boolean isWhite = live.getWhiteUsername().equals(username);
+            Position position = live.getPosition();
+            if (!ChessBoardService.isMoveValid(position, from, to, promotion, isWhite)) {
+                throw new IllegalArgumentException("Invalid move");
+            }
+            long nowNanos = System.nanoTime();
+            Instant now = Instant.now();
+            long elapsedMs = Math.max(0, live.elapsedMs(nowNanos) - lagCompensation.compensationMs(username));
+            TimeControl timeControl = live.getTimeControl();
+            long remaining = live.remainingMs(isWhite) - timeControl.charge(elapsedMs);
+            if (remaining <= 0) throw new IllegalArgumentException("Temps écoulé");
+            remaining += timeControl.bonus(elapsedMs);
+            long whiteRemaining = isWhite ? remaining : live.getWhiteRemainingMs();
+            long blackRemaining = isWhite ? live.getBlackRemainingMs() : remaining;
+            String piece = ChessBoardService.pieceLetter(position, from);
+            int encoded = ChessBoardService.toMove(position, from, to, promotion);
+            // Stored as played, never as sent: the client's text may be longer, lower case or on a non-promotion.
+            String promotionLetter = ChessBoardService.promotionLetter(encoded);
+
+            // From here on the live position is ahead of the database until commit.
+            evictOnRollback(gameId);
+            position.makeMove(encoded);
+            GameMove move = GameMove.builder()
+                    .game(gameRepository.getReferenceById(gameId))
+                    .moveNumber(moveNumber + 1)
+                    .fromSquare(from)
+                    .toSquare(to)
+                    .piece(piece)
+                    .promotion(promotionLetter)
+                    .build();
+            if (moveJournal.isEnabled()) {
+                // Write-behind: durable once journaled, stored in the database shortly after.
+                moveJournal.append(new MoveJournal.Entry(gameId, moveNumber + 1, from, to, piece, promotionLetter, encoded,
+                        whiteRemaining, blackRemaining, now.toEpochMilli(), position.toFen()));
+            } else {
+                if (gameRepository.updateAfterMove(gameId, whiteRemaining, blackRemaining,
+                        toSeconds(whiteRemaining), toSeconds(blackRemaining), now, position.toFen(), moveNumber + 1) == 0) {
+                    // Finished, or moved on through another node since this live state was loaded.
+                    throw new IllegalArgumentException("Game not found or finished");
+                }
+                if (live.isPackedMoves()) {
+                    gameRepository.appendPackedMoves(gameId, PackedMoves.of(encoded));
+                } else {
+                    move = moveRepository.save(move);
+                }
+            }
+
+            live.setMoveCount(moveNumber + 1);
+            live.setWhiteRemainingMs(whiteRemaining);
+            live.setBlackRemainingMs(blackRemaining);
+            live.setTurnStartedAt(now);
+            live.setTurnStartedNanos(nowNanos);
+            scheduleClock(live);
+            GameEventDto event = GameEventDto.builder()
+                    .type(GameEventDto.Type.MOVE)
+                    .gameId(gameId)
+                    .seq(moveNumber + 1)
+                    .move(MoveDto.fromEntity(move))
+                    .whiteRemainingMs(whiteRemaining)
+                    .blackRemainingMs(blackRemaining)
+                    .turnStartedAtEpochMs(now.toEpochMilli())
+                    .build();
+            afterCommit(() -> {
+                gameEvents.publish(event);
+                clusterBus.publish(CLUSTER_CHANNEL, new GameChanged(gameId));
+            });
+            Termination termination = ChessBoardService.termination(position);
+            if (termination != null) {
+                if (moveJournal.isEnabled()) {
+                    // The journaled move is acknowledged and stands; the result follows once it is stored, from
+                    // the clock poll, which retries if the flush is late.
+                    live.setTermination(termination);
+                    afterCommit(() -> clockDeadlines.schedule(gameId, System.currentTimeMillis()));
+                } else {
+                    finishOnBoard(live, termination);
+                }
+            }
+            return move;
         }
-        Instant now = Instant.now();
-        if (game.getTurnStartedAt() == null) game.setTurnStartedAt(now);
-        {
-            long elapsedSec = now.getEpochSecond() - game.getTurnStartedAt().getEpochSecond();
-            if (isWhite) {
-                int newRemaining = game.getWhiteRemainingSeconds() - (int) elapsedSec;
-                if (newRemaining <= 0) throw new IllegalArgumentException("Temps écoulé");
-                game.setWhiteRemainingSeconds(newRemaining);
+    }
+
+    /**
+     * The last move ended the game by the rules: the player who made it wins a checkmate, anything else is a
+     * draw. Caller holds the live game's lock.
+     */
+    private void finishOnBoard(LiveGame live, Termination termination) {
+        Long gameId = live.getGameId();
+        // The status update must not overtake the journaled move, which is only stored while the game is ACTIVE.
+        moveJournal.awaitFlushed(gameId);
+        boolean whiteWon = !live.isWhiteToMove();
+        String winner = termination.isDraw() ? null : whiteWon ? live.getWhiteUsername() : live.getBlackUsername();
+        double whiteScore = termination.isDraw() ? 0.5 : whiteWon ? 1 : 0;
+        Game.GameStatus status = termination.isDraw() ? Game.GameStatus.DRAW : Game.GameStatus.FINISHED;
+        boolean finished = gameRepository.finishActive(gameId, status, winner) > 0;
+        finishLiveGame(gameId);
+        if (!finished) return; // ended otherwise meanwhile (aborted)
+        log.info("Game {} over after {} plies: {}", gameId, live.getMoveCount(), termination);
+        broadcastGameOver(gameId, live.getMoveCount(), status, winner, live.getWhitePlayerId(), live.getBlackPlayerId(),
+                whiteScore, live.getWhiteRemainingMs(), live.getBlackRemainingMs());
+    }
+
+    /**
+     * The move journal could not store a move of this game and has marked it ABORTED: end it for the players,
+     * in the game's turn so no move of it is being recorded meanwhile. No result is rated.
+     */
+    private void abortUnstorable(Long gameId) {
+        gameActors.submit(gameId, () -> {
+            LiveGame live = liveGames.get(gameId).orElse(null);
+            finishLiveGame(gameId);
+            Game game = gameRepository.findWithPlayersById(gameId).orElse(null);
+            if (game == null) return null;
+            log.error("Game {} aborted: one of its moves could not be stored", gameId);
+            broadcastGameOver(gameId, live != null ? live.getMoveCount() : game.getPlyCount(), Game.GameStatus.ABORTED,
+                    null, game.getWhitePlayer().getId(), game.getBlackPlayer().getId(), 0.5,
+                    live != null ? live.getWhiteRemainingMs() : game.remainingMs(true),
+                    live != null ? live.getBlackRemainingMs() : game.remainingMs(false));
+            return null;
+        });
+    }
+
+    /** Cached live state, else rebuilt from the database once the game's journaled moves are stored. */
+    private LiveGame liveGame(Long gameId) {
+        LiveGame live = liveGames.get(gameId).orElse(null);
+        if (live != null) return live;
+        moveJournal.awaitFlushed(gameId);
+        return liveGames.getOrLoad(gameId, this::loadLiveGame);
+    }
+
+    /**
+     * Cache miss: rebuild the live state of an ACTIVE game from its stored position snapshot. When the snapshot
+     * could be part of a repetition, the moves are replayed instead so the position carries its hash history.
+     */
+    private LiveGame loadLiveGame(Long gameId) {
+        Game game = gameRepository.findByIdAndStatus(gameId, Game.GameStatus.ACTIVE)
+                .orElseThrow(() -> new IllegalArgumentException("Game not found or finished"));
+        Position position = Position.fromFen(game.getFen());
+        if (position.halfmoveClock() >= 4) position = replayMoves(game, position);
+        LiveGame live = newLiveGame(game, position, game.getPlyCount());
+        // Journal mode: the last move ended the game but the node stopped before the result was stored.
+        live.setTermination(ChessBoardService.termination(position));
+        if (live.getTermination() != null) clockDeadlines.schedule(gameId, System.currentTimeMillis());
+        log.debug("Loaded live state of game {} ({} moves)", gameId, game.getPlyCount());
+        return live;
+    }
+
+    /** The game's moves played from the start, or {@code snapshot} when they do not lead to it. */
+    private Position replayMoves(Game game, Position snapshot) {
+        Position position = Position.start();
+        byte[] packed = game.getPackedMoves();
+        try {
+            if (packed != null) {
+                for (int i = 0; i < PackedMoves.count(packed); i++) {
+                    position.makeMove(PackedMoves.moveAt(packed, i));
+                }
             } else {
-                int newRemaining = game.getBlackRemainingSeconds() - (int) elapsedSec;
-                if (newRemaining <= 0) throw new IllegalArgumentException("Temps écoulé");
-                game.setBlackRemainingSeconds(newRemaining);
+                for (GameMove m : moveRepository.findByGameIdOrderByMoveNumberAsc(game.getId())) {
+                    ChessBoardService.applyMove(position, m.getFromSquare(), m.getToSquare(), m.getPromotion());
+                }
             }
+        } catch (IllegalArgumentException e) {
+            return snapshot;
         }
-        game.setTurnStartedAt(now);
-        gameRepository.save(game);
+        return position.hash() == snapshot.hash() && position.ply() == game.getPlyCount() ? position : snapshot;
+    }
 
-        GameMove move = GameMove.builder()
-                .game(game)
-                .moveNumber(moveNumber + 1)
-                .fromSquare(from)
-                .toSquare(to)
-                .piece(piece != null ? piece : "P")
-                .promotion(promotion)
-                .build();
-        move = moveRepository.save(move);
-        return move;
+    private LiveGame newLiveGame(Game game, Position position, int moveCount) {
+        LiveGame live = new LiveGame(game.getId(),
+                game.getWhitePlayer().getId(), game.getBlackPlayer().getId(),
+                game.getWhitePlayer().getUsername(), game.getBlackPlayer().getUsername(),
+                game.timeControlOrDefault(), position, moveCount);
+        live.setPackedMoves(game.getPackedMoves() != null);
+        live.setWhiteRemainingMs(game.remainingMs(true));
+        live.setBlackRemainingMs(game.remainingMs(false));
+        Instant turnStartedAt = game.getTurnStartedAt() != null ? game.getTurnStartedAt() : Instant.now();
+        live.setTurnStartedAt(turnStartedAt);
+        long sinceTurnStartMs = Math.max(0, Instant.now().toEpochMilli() - turnStartedAt.toEpochMilli());
+        live.setTurnStartedNanos(System.nanoTime() - sinceTurnStartMs * 1_000_000);
+        return live;
+    }
+
+    /** The in-memory state is updated before commit; drop it if the transaction does not commit. */
+    private void evictOnRollback(Long gameId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) liveGames.evict(gameId);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     @Transactional
     public void resign(Long gameId, String username) {
+        if (liveGames.get(gameId).map(LiveGame::getTermination).isPresent()) {
+            throw new IllegalArgumentException("Game not found or finished");
+        }
+        moveJournal.awaitFlushed(gameId);
         Game game = gameRepository.findByIdAndStatus(gameId, Game.GameStatus.ACTIVE)
                 .orElseThrow(() -> new IllegalArgumentException("Game not found or finished"));
         boolean isWhite = game.getWhitePlayer().getUsername().equals(username);
         game.setStatus(Game.GameStatus.FINISHED);
         game.setWinnerUsername(isWhite ? game.getBlackPlayer().getUsername() : game.getWhitePlayer().getUsername());
         gameRepository.save(game);
-        broadcastGameOver(gameId, game.getWinnerUsername());
+        finishLiveGame(gameId);
+        broadcastGameOver(game, game.remainingMs(true), game.remainingMs(false));
     }
 
+    /**
+     * Called when a game's flag-fall deadline is reached. The live clocks are re-checked, since a move may
+     * have landed in the meantime; a game with time left is simply rescheduled.
+     */
     @Transactional
-    public void checkAndFinishExpiredGames() {
+    public void finishOnTime(Long gameId) {
+        LiveGame live;
+        try {
+            live = liveGame(gameId);
+        } catch (IllegalArgumentException e) {
+            return; // already finished
+        }
+        synchronized (live) {
+            if (live.isFinished()) return;
+            if (live.getTermination() != null) {
+                // Ended on the board in journal mode; throws (and is retried) while the last move is not stored.
+                finishOnBoard(live, live.getTermination());
+                return;
+            }
+            boolean whiteToMove = live.isWhiteToMove();
+            String mover = whiteToMove ? live.getWhiteUsername() : live.getBlackUsername();
+            long elapsedMs = Math.max(0, live.elapsedMs(System.nanoTime()) - lagCompensation.compensationMs(mover));
+            if (live.remainingMs(whiteToMove) - live.getTimeControl().charge(elapsedMs) > 0) {
+                scheduleClock(live);
+                return;
+            }
+            moveJournal.awaitFlushed(gameId);
+            Game game = gameRepository.findByIdAndStatus(gameId, Game.GameStatus.ACTIVE).orElse(null);
+            if (game == null) {
+                finishLiveGame(gameId);
+                return;
+            }
+            if (game.getPlyCount() != live.getMoveCount()) {
+                // Moves were played through another node: re-check on fresh state at the next poll.
+                evictStale(gameId);
+                clockDeadlines.schedule(gameId, System.currentTimeMillis());
+                return;
+            }
+            game.setStatus(Game.GameStatus.FINISHED);
+            game.setWinnerUsername(whiteToMove ? live.getBlackUsername() : live.getWhiteUsername());
+            if (whiteToMove) {
+                game.setWhiteRemainingMs(0L);
+                game.setWhiteRemainingSeconds(0);
+            } else {
+                game.setBlackRemainingMs(0L);
+                game.setBlackRemainingSeconds(0);
+            }
+            gameRepository.save(game);
+            finishLiveGame(gameId);
+            broadcastGameOver(game, game.remainingMs(true), game.remainingMs(false));
+        }
+    }
+
+    /** Startup: register the deadline of every ACTIVE game once. */
+    @Transactional(readOnly = true)
+    public void scheduleActiveClocks() {
         List<Game> active = gameRepository.findByStatus(Game.GameStatus.ACTIVE);
-        Instant now = Instant.now();
         for (Game game : active) {
             if (game.getTurnStartedAt() == null) continue;
-            int moveCount = moveRepository.findByGameIdOrderByMoveNumberAsc(game.getId()).size();
-            boolean whiteToMove = moveCount % 2 == 0;
-            long elapsedSec = now.getEpochSecond() - game.getTurnStartedAt().getEpochSecond();
-            int remaining = whiteToMove
-                    ? game.getWhiteRemainingSeconds() - (int) elapsedSec
-                    : game.getBlackRemainingSeconds() - (int) elapsedSec;
-            if (remaining <= 0) {
-                game.setStatus(Game.GameStatus.FINISHED);
-                game.setWinnerUsername(whiteToMove ? game.getBlackPlayer().getUsername() : game.getWhitePlayer().getUsername());
-                gameRepository.save(game);
-                broadcastGameOver(game.getId(), game.getWinnerUsername());
+            boolean whiteToMove = game.getPlyCount() % 2 == 0;
+            long timeToFlag = game.timeControlOrDefault().timeToFlag(game.remainingMs(whiteToMove));
+            clockDeadlines.schedule(game.getId(), game.getTurnStartedAt().toEpochMilli() + timeToFlag);
+        }
+        log.info("Scheduled clocks of {} active games", active.size());
+    }
+
+    /**
+     * One-time upgrade of games stored before position snapshots: replays their moves once, a batch of games
+     * (and one move query) at a time. Returns the number of games updated.
+     */
+    @Transactional
+    public int backfillPositionSnapshots(int batchSize) {
+        int updated = 0;
+        List<Game> batch;
+        while (!(batch = gameRepository.findByFenIsNull(PageRequest.of(0, batchSize))).isEmpty()) {
+            List<Long> ids = batch.stream().map(Game::getId).collect(Collectors.toList());
+            Map<Long, List<GameMove>> movesByGame = moveRepository.findByGameIdInOrderByGameIdAscMoveNumberAsc(ids).stream()
+                    .collect(Collectors.groupingBy(m -> m.getGame().getId()));
+            for (Game game : batch) {
+                Position position = Position.start();
+                int plies = 0;
+                for (GameMove m : movesByGame.getOrDefault(game.getId(), List.of())) {
+                    try {
+                        ChessBoardService.applyMove(position, m.getFromSquare(), m.getToSquare(), m.getPromotion());
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Game {}: stored move {} cannot be replayed, snapshot stops at ply {}", game.getId(), m.getMoveNumber(), plies);
+                        break;
+                    }
+                    plies++;
+                }
+                game.setFen(position.toFen());
+                game.setPlyCount(plies);
             }
+            gameRepository.saveAllAndFlush(batch);
+            updated += batch.size();
         }
+        return updated;
     }
 
-    private void broadcastGameOver(Long gameId, String winnerUsername) {
-        messagingTemplate.convertAndSend("/topic/game/" + gameId, Map.of(
-                "type", "GAME_OVER",
-                "winnerUsername", winnerUsername != null ? winnerUsername : ""
-        ));
+    /**
+     * Converts games whose moves are rows to packed moves, a batch of games (and one move query) at a time, and
+     * deletes their rows. A game whose stored moves cannot be replayed keeps its rows. Returns the number of
+     * games converted.
+     */
+    @Transactional
+    public int backfillPackedMoves(int batchSize) {
+        int packed = 0;
+        long afterId = 0;
+        List<Game> batch;
+        while (!(batch = gameRepository.findUnpackedAfter(afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+            afterId = batch.get(batch.size() - 1).getId();
+            List<Long> ids = batch.stream().map(Game::getId).collect(Collectors.toList());
+            Map<Long, List<GameMove>> movesByGame = moveRepository.findByGameIdInOrderByGameIdAscMoveNumberAsc(ids).stream()
+                    .collect(Collectors.groupingBy(m -> m.getGame().getId()));
+            List<Long> converted = new ArrayList<>(batch.size());
+            for (Game game : batch) {
+                List<GameMove> moves = movesByGame.getOrDefault(game.getId(), List.of());
+                int[] codes = new int[moves.size()];
+                Position position = Position.start();
+                try {
+                    for (int i = 0; i < codes.length; i++) {
+                        GameMove m = moves.get(i);
+                        codes[i] = ChessBoardService.toMove(position, m.getFromSquare(), m.getToSquare(), m.getPromotion());
+                        position.makeMove(codes[i]);
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.warn("Game {}: stored moves cannot be replayed, keeping them as rows", game.getId());
+                    continue;
+                }
+                game.setPackedMoves(PackedMoves.of(codes));
+                converted.add(game.getId());
+            }
+            gameRepository.saveAllAndFlush(batch);
+            if (!converted.isEmpty()) moveRepository.deleteByGameIds(converted);
+            packed += converted.size();
+        }
+        return packed;
+    }
+
+    /**
+     * Deadline of the side to move: turn start plus its remaining time (and simple delay), extended by the
+     * lag compensation that player would get if their move were already in flight.
+     */
+    private void scheduleClock(LiveGame live) {
+        boolean white = live.isWhiteToMove();
+        String mover = white ? live.getWhiteUsername() : live.getBlackUsername();
+        long timeToFlag = live.getTimeControl().timeToFlag(live.remainingMs(white)) + lagCompensation.compensationMs(mover);
+        clockDeadlines.schedule(live.getGameId(), live.getTurnStartedAt().toEpochMilli() + timeToFlag);
+    }
+
+    static int toSeconds(long ms) {
+        return (int) ((ms + 999) / 1000);
+    }
+
+    private void finishLiveGame(Long gameId) {
+        liveGames.get(gameId).ifPresent(live -> {
+            synchronized (live) {
+                live.setFinished(true);
+            }
+        });
+        liveGames.evict(gameId);
+        gameEvents.evict(gameId);
+        clockDeadlines.cancel(gameId);
+    }
+
+    /**
+     * GAME_OVER follows the last move, so its sequence number is the ply count plus one. Once committed the
+     * result is also queued for rating, unless the game was aborted.
+     */
+    private void broadcastGameOver(Game game, long whiteRemainingMs, long blackRemainingMs) {
+        broadcastGameOver(game.getId(), game.getPlyCount(), game.getStatus(), game.getWinnerUsername(),
+                game.getWhitePlayer().getId(), game.getBlackPlayer().getId(), game.whiteScore(),
+                whiteRemainingMs, blackRemainingMs);
+    }
+
+    private void broadcastGameOver(Long gameId, int plyCount, Game.GameStatus status, String winnerUsername,
+                                   Long whitePlayerId, Long blackPlayerId, double whiteScore,
+                                   long whiteRemainingMs, long blackRemainingMs) {
+        GameEventDto event = GameEventDto.builder()
+                .type(GameEventDto.Type.GAME_OVER)
+                .gameId(gameId)
+                .seq(plyCount + 1L)
+                .status(status.name())
+                .winnerUsername(winnerUsername != null ? winnerUsername : "")
+                .whiteRemainingMs(whiteRemainingMs)
+                .blackRemainingMs(blackRemainingMs)
+                .build();
+        RatingService.GameResult result = new RatingService.GameResult(gameId, whitePlayerId, blackPlayerId, whiteScore);
+        afterCommit(() -> {
+            gameEvents.publish(event);
+            clusterBus.publish(CLUSTER_CHANNEL, new GameChanged(gameId));
+            if (status != Game.GameStatus.ABORTED) ratings.submit(result);
+        });
     }
 }
@@ -0,0 +1,114 @@
+package com.chess.service;
+
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Glicko-2 (Glickman, 2012). The server rates after every game, a rating period of one game as most online
+ * servers apply it; longer periods are supported too. Ratings are on the Glicko scale (default 1500 / 350 / 0.06);
+ * {@link #update} works on the internal scale from step 2 on.
+ */
+public final class Glicko2 {
+
+    public static final double DEFAULT_RATING = 1500;
+    public static final double DEFAULT_DEVIATION = 350;
+    public static final double DEFAULT_VOLATILITY = 0.06;
+    /** Lower bound so established players still move a little after every game. */
+    public static final double MIN_DEVIATION = 45;
+
+    private static final double SCALE = 173.7178;
+    private static final double EPSILON = 0.000001;
+
+    public record Rating(double rating, double deviation, double volatility) {
+    }
+
+    /** One game of a rating period: the opponent's rating before it and the player's score. */
+    public record Result(Rating opponent, double score) {
+    }
+
+    private Glicko2() {
+    }
+
+    /**
+     * New rating of {@code player} after one game against {@code opponent}.
+     *
+     * @param score 1 for a win, 0.5 for a draw, 0 for a loss
+     * @param tau   constraint on the change in volatility over time (0.3 to 1.2; smaller is steadier)
+     */
+    public static Rating update(Rating player, Rating opponent, double score, double tau) {
+        return update(player, List.of(new Result(opponent, score)), tau);
+    }
+
+    /**
+     * New rating of {@code player} after a rating period; with no game only the deviation grows.
+     *
+     * @param tau constraint on the change in volatility over time (0.3 to 1.2; smaller is steadier)
+     */
+    public static Rating update(Rating player, List<Result> results, double tau) {
+        double mu = (player.rating() - DEFAULT_RATING) / SCALE;
+        double phi = player.deviation() / SCALE;
+        double sigma = player.volatility();
+        if (results.isEmpty()) {
+            double deviation = Math.min(DEFAULT_DEVIATION, Math.sqrt(phi * phi + sigma * sigma) * SCALE);
+            return new Rating(player.rating(), deviation, sigma);
+        }
+
+        double vInverse = 0;
+        double improvement = 0; // sum of g * (score - E), delta / v
+        for (Result result : results) {
+            double muJ = (result.opponent().rating() - DEFAULT_RATING) / SCALE;
+            double phiJ = result.opponent().deviation() / SCALE;
+            double g = 1 / Math.sqrt(1 + 3 * phiJ * phiJ / (Math.PI * Math.PI));
+            double e = 1 / (1 + Math.exp(-g * (mu - muJ)));
+            vInverse += g * g * e * (1 - e);
+            improvement += g * (result.score() - e);
+        }
+        double v = 1 / vInverse;
+        double delta = v * improvement;
+
+        double newSigma = volatility(delta, phi, v, sigma, tau);
+        double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + 1 / v);
+        double newMu = mu + newPhi * newPhi * improvement;
+
+        double deviation = Math.max(MIN_DEVIATION, Math.min(DEFAULT_DEVIATION, newPhi * SCALE));
+        return new Rating(newMu * SCALE + DEFAULT_RATING, deviation, newSigma);
+    }
+
+    /** Step 5: new volatility by the Illinois variant of regula falsi. */
+    private static double volatility(double delta, double phi, double v, double sigma, double tau) {
+        double a = Math.log(sigma * sigma);
+        double deltaSq = delta * delta;
+        double phiSq = phi * phi;
+        double tauSq = tau * tau;
+        DoubleUnaryOperator f = x -> {
+            double ex = Math.exp(x);
+            double d = phiSq + v + ex;
+            return ex * (deltaSq - phiSq - v - ex) / (2 * d * d) - (x - a) / tauSq;
+        };
+        double lo = a;
+        double hi;
+        if (deltaSq > phiSq + v) {
+            hi = Math.log(deltaSq - phiSq - v);
+        } else {
+            int k = 1;
+            while (f.applyAsDouble(a - k * tau) < 0) k++;
+            hi = a - k * tau;
+        }
+        double fLo = f.applyAsDouble(lo);
+        double fHi = f.applyAsDouble(hi);
+        while (Math.abs(hi - lo) > EPSILON) {
+            double c = lo + (lo - hi) * fLo / (fHi - fLo);
+            double fC = f.applyAsDouble(c);
+            if (fC * fHi <= 0) {
+                lo = hi;
+                fLo = fHi;
+            } else {
+                fLo /= 2;
+            }
+            hi = c;
+            fHi = fC;
+        }
+        return Math.exp(lo / 2);
+    }
+}
@@ -0,0 +1,76 @@
+package com.chess.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user network lag estimate used to credit move time. The server issues a ping token (its own
+ * monotonic timestamp), the client echoes it back, and the server times the round trip. The client still
+ * chooses when to echo, so the estimate is the minimum of the last few samples: a late echo or a jitter
+ * spike does not raise it, only a network that stays slower for a whole window does. Half of it, capped,
+ * is not charged to the player's clock.
+ */
+@Service
+public class LagCompensationService {
+
+    private static final long MAX_PLAUSIBLE_RTT_MS = 10_000;
+    /** Round trips kept per user; one ping every 10 s from the client makes this the last 50 s. */
+    private static final int WINDOW = 5;
+
+    /** The last {@link #WINDOW} round trips of one user and their minimum, read on every move. */
+    private static final class RoundTrips {
+        private final long[] samples = new long[WINDOW];
+        private int count;
+        private int next;
+        private volatile long minimum;
+
+        synchronized void add(long rttMs) {
+            samples[next] = rttMs;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, samples[i]);
+            }
+            minimum = min;
+        }
+    }
+
+    private final long maxCompensationMs;
+    private final Map<String, Long> pendingPings = new ConcurrentHashMap<>();
+    private final Map<String, RoundTrips> roundTrips = new ConcurrentHashMap<>();
+
+    public LagCompensationService(@Value("${app.clock.max-lag-compensation-ms:250}") long maxCompensationMs) {
+        this.maxCompensationMs = maxCompensationMs;
+    }
+
+    /** Start a measurement; the returned token must come back through {@link #recordPong}. */
+    public long issuePing(String username) {
+        long token = System.nanoTime();
+        pendingPings.put(username, token);
+        return token;
+    }
+
+    public void recordPong(String username, long token) {
+        Long sent = pendingPings.remove(username);
+        if (sent == null || sent != token) return;
+        long rtt = (System.nanoTime() - sent) / 1_000_000;
+        if (rtt < 0 || rtt > MAX_PLAUSIBLE_RTT_MS) return;
+        roundTrips.computeIfAbsent(username, u -> new RoundTrips()).add(rtt);
+    }
+
+    /** Milliseconds of think time to credit back to {@code username} for a move. */
+    public long compensationMs(String username) {
+        RoundTrips rtt = roundTrips.get(username);
+        return rtt == null ? 0 : Math.min(rtt.minimum / 2, maxCompensationMs);
+    }
+
+    /** Round trip the compensation is based on, or null before the first measurement. */
+    public Long roundTripMs(String username) {
+        RoundTrips rtt = roundTrips.get(username);
+        return rtt == null ? null : rtt.minimum;
+    }
+}
@@ -0,0 +1,80 @@
+package com.chess.service;
+
+import com.chess.cluster.ClusterBus;
+import com.chess.entity.User;
+import com.chess.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Rated players ordered by rating, in memory. Loaded once at startup and then updated with every rating
+ * batch (from this node or, through the {@link ClusterBus}, from the others), so reading the top N costs
+ * O(log n + N) however many games have been played. Players who have not played a rated game are left out.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class Leaderboard {
+
+    private static final String CHANNEL = "ratings";
+
+    public record Entry(Long userId, String username, double rating, double deviation) {
+    }
+
+    /** Ratings written by one batch on another node. */
+    public record RatingsChanged(List<Entry> entries) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::rating).reversed()
+            .thenComparing(Entry::userId);
+
+    private final UserRepository userRepository;
+    private final ClusterBus clusterBus;
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Entry> byUser = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribeToCluster() {
+        clusterBus.subscribe(CHANNEL, RatingsChanged.class, (node, event) -> event.entries().forEach(this::put));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<User> rated = userRepository.findByRatingDeviationLessThan(User.DEFAULT_RATING_DEVIATION);
+        rated.forEach(u -> put(new Entry(u.getId(), u.getUsername(), u.getRating(), u.getRatingDeviation())));
+        log.info("Leaderboard loaded with {} rated players", rated.size());
+    }
+
+    /** New ratings from a batch on this node; the other nodes are told. */
+    public void update(List<Entry> entries) {
+        entries.forEach(this::put);
+        clusterBus.publish(CHANNEL, new RatingsChanged(entries));
+    }
+
+    /** Best {@code limit} players, highest rating first. */
+    public List<Entry> top(int limit) {
+        return ranking.stream().limit(limit).toList();
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    private synchronized void put(Entry entry) {
+        if (entry.deviation() >= User.DEFAULT_RATING_DEVIATION) return;
+        Entry previous = byUser.put(entry.userId(), entry);
+        if (previous != null) ranking.remove(previous);
+        ranking.add(entry);
+    }
+}
@@ -0,0 +1,70 @@
+package com.chess.service;
+
+import com.chess.engine.Position;
+import com.chess.engine.Termination;
+import com.chess.entity.TimeControl;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * In-memory state of an ACTIVE game: current position, ply count, clocks and players.
+ * Not thread-safe on its own; callers synchronize on the instance.
+ */
+@Getter
+@Setter
+public class LiveGame {
+
+    private final Long gameId;
+    private final Long whitePlayerId;
+    private final Long blackPlayerId;
+    private final String whiteUsername;
+    private final String blackUsername;
+    private final TimeControl timeControl;
+    private final Position position;
+    private int moveCount;
+    private long whiteRemainingMs;
+    private long blackRemainingMs;
+    /** Wall-clock start of the current turn, persisted and shown to clients. */
+    private Instant turnStartedAt;
+    /** Monotonic start of the current turn ({@link System#nanoTime()}), used for all clock arithmetic. */
+    private long turnStartedNanos;
+    private boolean finished;
+    /**
+     * Set when the last move ended the game by the rules but its result is not stored yet (journal mode waits for
+     * the move to be flushed first); no further move or resignation is taken.
+     */
+    private Termination termination;
+    /** Moves are appended to the game's packed move array rather than stored as rows. */
+    private boolean packedMoves;
+
+    public LiveGame(Long gameId, Long whitePlayerId, Long blackPlayerId, String whiteUsername, String blackUsername,
+                    TimeControl timeControl, Position position, int moveCount) {
+        this.gameId = gameId;
+        this.whitePlayerId = whitePlayerId;
+        this.blackPlayerId = blackPlayerId;
+        this.whiteUsername = whiteUsername;
+        this.blackUsername = blackUsername;
+        this.timeControl = timeControl;
+        this.position = position;
+        this.moveCount = moveCount;
+    }
+
+    public boolean isWhiteToMove() {
+        return moveCount % 2 == 0;
+    }
+
+    public long remainingMs(boolean white) {
+        return white ? whiteRemainingMs : blackRemainingMs;
+    }
+
+    /** Milliseconds since the current turn started, measured on the monotonic clock. */
+    public long elapsedMs(long nowNanos) {
+        return (nowNanos - turnStartedNanos) / 1_000_000;
+    }
+
+    public boolean isPlayer(String username) {
+        return whiteUsername.equals(username) || blackUsername.equals(username);
+    }
+}
@@ -0,0 +1,46 @@
+package com.chess.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Live state of ACTIVE games keyed by game id. Filled when a game is created and updated on every move;
+ * a miss (e.g. after a restart) is rebuilt once from the database by the loader passed to {@link #getOrLoad}.
+ */
+@Component
+public class LiveGameCache {
+
+    private final Map<Long, LiveGame> games = new ConcurrentHashMap<>();
+
+    /**
+     * The loader runs outside the map, so a slow database load does not block other games; when two callers
+     * load the same game at once, the first one cached wins and both get it.
+     */
+    public LiveGame getOrLoad(Long gameId, Function<Long, LiveGame> loader) {
+        LiveGame cached = games.get(gameId);
+        if (cached != null) return cached;
+        LiveGame loaded = loader.apply(gameId);
+        LiveGame raced = games.putIfAbsent(gameId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    public Optional<LiveGame> get(Long gameId) {
+        return Optional.ofNullable(games.get(gameId));
+    }
+
+    public void put(LiveGame game) {
+        games.put(game.getGameId(), game);
+    }
+
+    public void evict(Long gameId) {
+        games.remove(gameId);
+    }
+
+    public int size() {
+        return games.size();
+    }
+}
@@ -0,0 +1,611 @@
+package com.chess.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Optional write-behind persistence of moves ({@code app.game.journal.enabled}). A validated move is appended to
+ * a local journal file and acknowledged once the file is synced; moves arriving together share one sync (group
+ * commit). A background flusher writes journaled moves to the database in JDBC batches, and journal segments whose
+ * moves are all stored are deleted. Segments left by a crash are replayed into the database at startup, so an
+ * acknowledged move is never lost.
+ * <p>
+ * The database trails the live games by up to one flush interval: anything that reads a game back from the
+ * database first waits for that game's journaled moves ({@link #awaitFlushed}). Other nodes only see the database,
+ * so this mode is meant for a single node.
+ * <p>
+ * A move the database keeps refusing while it is reachable is set aside in {@value #QUARANTINE_FILE}, with an
+ * error logged, so it cannot hold back the moves of every other game. Its game can no longer be stored
+ * consistently: it is marked ABORTED, its later moves are set aside too and new ones are refused.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class MoveJournal implements MeterBinder {
+
+    /**
+     * A move as journaled: everything needed to store it (as a row, or as its {@link com.chess.engine.Move} code
+     * for packed games) and the game's state after it.
+     */
+    public record Entry(long gameId, int moveNumber, String fromSquare, String toSquare, String piece, String promotion,
+                        int move, long whiteRemainingMs, long blackRemainingMs, long turnStartedAtMs, String fen) {
+    }
+
+    private record Pending(Entry entry, byte[] record, CompletableFuture<Void> durable) {
+    }
+
+    private record Segment(Path path, long lastSeq) {
+    }
+
+    private static final String SEGMENT_PREFIX = "moves-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    /** Moves written with one sync at most. */
+    private static final int MAX_GROUP = 256;
+    private static final long SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final long AWAIT_FLUSH_TIMEOUT_MS = 10_000;
+    /** Records are refused above this size when appended, and read back as torn above it. */
+    private static final int MAX_RECORD_BYTES = 4096;
+    /** Failed flushes of the same batch before its moves are stored one by one. */
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
+    /** Moves the database refused, kept for inspection; never replayed. */
+    private static final String QUARANTINE_FILE = "quarantined.journal";
+
+    private static final String INSERT_MOVE = "INSERT INTO game_moves (game_id, move_number, from_square, to_square, piece, promotion) "
+            + "SELECT ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM game_moves WHERE game_id = ? AND move_number = ?)";
+    private static final String SELECT_PACKED = "SELECT id, ply_count FROM games WHERE packed_moves IS NOT NULL AND id IN ";
+    private static final String APPEND_PACKED = "UPDATE games SET packed_moves = packed_moves || CAST(? AS VARBINARY) WHERE id = ? AND ply_count = ?";
+    private static final String ABORT_GAME = "UPDATE games SET status = 'ABORTED' WHERE id = ? AND status = 'ACTIVE'";
+    private static final String UPDATE_GAME = "UPDATE games SET white_remaining_ms = ?, black_remaining_ms = ?, "
+            + "white_remaining_seconds = ?, black_remaining_seconds = ?, turn_started_at = ?, fen = ?, ply_count = ? "
+            + "WHERE id = ? AND status = 'ACTIVE' AND ply_count < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path dir;
+    private final long flushIntervalMs;
+    private final int batchSize;
+
+    private final BlockingQueue<Pending> appends = new LinkedBlockingQueue<>();
+    // Journaled but not yet stored, oldest first; guarded by flushLock, which is also waited on by awaitFlushed
+    private final Object flushLock = new Object();
+    private final Deque<Entry> unflushed = new ArrayDeque<>();
+    private final Map<Long, Integer> unflushedByGame = new HashMap<>();
+    private long flushedSeq;
+    // Owned by the flusher
+    private int failedFlushes;
+    /** Games with a move the database refused; nothing more of them is stored. */
+    private final Set<Long> unstorable = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Long>> unstorableListeners = new CopyOnWriteArrayList<>();
+    // Owned by the writer thread
+    private FileChannel channel;
+    private Path current;
+    private long writtenSeq;
+    /** Numbers segment files; never reused, unlike {@code writtenSeq}, which stays put when a write fails. */
+    private long segmentNumber;
+    private final List<Segment> closed = new ArrayList<>();
+
+    private Thread writer;
+    private ScheduledExecutorService flusher;
+
+    public MoveJournal(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                       @Value("${app.game.journal.enabled:false}") boolean enabled,
+                       @Value("${app.game.journal.dir:./data/journal}") String dir,
+                       @Value("${app.game.journal.flush-interval-ms:100}") long flushIntervalMs,
+                       @Value("${app.game.journal.batch-size:500}") int batchSize,
+                       @Value("${app.websocket.broker.mode:simple}") String brokerMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+        if (enabled && "relay".equalsIgnoreCase(brokerMode)) {
+            log.warn("Move journal enabled with several nodes: other nodes see moves only once they are flushed");
+        }
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        replay();
+        if (!enabled) return;
+        openSegment();
+        writer = new Thread(this::writeLoop, "move-journal");
+        writer.setDaemon(true);
+        writer.start();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "move-journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Move journal enabled in {}", dir.toAbsolutePath());
+    }
+
+    /** Stop taking moves and store what is journaled; anything left is replayed at the next start. */
+    @PreDestroy
+    void stop() {
+        if (!enabled) return;
+        writer.interrupt();
+        flusher.shutdown();
+        try {
+            writer.join(1000);
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (flushedSeq == writtenSeq) {
+            closed.add(new Segment(current, writtenSeq));
+            deleteStoredSegments();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Called on the flusher thread with the id of a game aborted because one of its moves could not be stored. */
+    public void onUnstorable(Consumer<Long> listener) {
+        unstorableListeners.add(listener);
+    }
+
+    /**
+     * Append {@code entry} and wait until it is on disk. Throws IllegalArgumentException if the entry is too large
+     * to be read back, IllegalStateException if it could not be written.
+     */
+    public void append(Entry entry) {
+        if (unstorable.contains(entry.gameId())) {
+            throw new IllegalStateException("Game " + entry.gameId() + " was aborted, its moves can no longer be stored");
+        }
+        byte[] record;
+        try {
+            record = encode(entry);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Move too large to journal", e);
+        }
+        if (record.length - 8 > MAX_RECORD_BYTES) throw new IllegalArgumentException("Move too large to journal");
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        appends.add(new Pending(entry, record, durable));
+        try {
+            durable.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while journaling move", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not journal move", e.getCause());
+        }
+    }
+
+    /** Wait until the journaled moves of {@code gameId} are in the database; returns at once when there are none. */
+    public void awaitFlushed(Long gameId) {
+        if (!enabled) return;
+        long deadline = System.currentTimeMillis() + AWAIT_FLUSH_TIMEOUT_MS;
+        synchronized (flushLock) {
+            while (unflushedByGame.containsKey(gameId)) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) throw new IllegalStateException("Moves of game " + gameId + " are not stored yet");
+                try {
+                    flushLock.wait(left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the move journal", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) return;
+        Gauge.builder("game.journal.unflushed", this, j -> {
+            synchronized (j.flushLock) {
+                return j.unflushed.size();
+            }
+        }).description("Journaled moves not yet stored in the database").register(registry);
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>(MAX_GROUP);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Pending first = appends.poll(1, TimeUnit.SECONDS);
+                deleteStoredSegments();
+                if (first == null) continue;
+                group.add(first);
+                appends.drainTo(group, MAX_GROUP - 1);
+                write(group);
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException e) {
+                log.error("Move journal write failed, {} moves refused", group.size(), e);
+                group.forEach(p -> p.durable().completeExceptionally(e));
+            }
+            group.clear();
+        }
+        appends.forEach(p -> p.durable().completeExceptionally(new IOException("Move journal closed")));
+        closeQuietly();
+    }
+
+    private void write(List<Pending> group) throws IOException {
+        if (!channel.isOpen()) {
+            // The last failure could not open a fresh segment; the old one is already closed.
+            openSegment();
+        } else if (channel.position() >= SEGMENT_BYTES) {
+            closed.add(new Segment(current, writtenSeq));
+            channel.close();
+            openSegment();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(group.size() * 128);
+        for (Pending p : group) {
+            bytes.write(p.record());
+        }
+        long start = channel.position();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            discardFrom(start);
+            throw e;
+        }
+        writtenSeq += group.size();
+        synchronized (flushLock) {
+            for (Pending p : group) {
+                unflushed.add(p.entry());
+                unflushedByGame.merge(p.entry().gameId(), 1, Integer::sum);
+            }
+        }
+        group.forEach(p -> p.durable().complete(null));
+    }
+
+    /**
+     * Cut a refused group off the segment, so replay neither stops at a torn record nor stores moves that were
+     * never acknowledged. If even that fails, later moves go to a fresh segment so they stay readable.
+     */
+    private void discardFrom(long start) {
+        try {
+            channel.truncate(start);
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("Could not cut the failed write off move journal segment {}", current, e);
+            rollAfterFailure();
+        }
+    }
+
+    private void rollAfterFailure() {
+        closed.add(new Segment(current, writtenSeq));
+        closeQuietly();
+        try {
+            openSegment();
+        } catch (IOException e) {
+            log.error("Could not open a new move journal segment", e);
+        }
+    }
+
+    private void deleteStoredSegments() {
+        long stored;
+        synchronized (flushLock) {
+            stored = flushedSeq;
+        }
+        for (Iterator<Segment> it = closed.iterator(); it.hasNext(); ) {
+            Segment segment = it.next();
+            if (segment.lastSeq() > stored) break;
+            try {
+                Files.deleteIfExists(segment.path());
+                it.remove();
+            } catch (IOException e) {
+                log.warn("Could not delete move journal segment {}: {}", segment.path(), e.getMessage());
+                break;
+            }
+        }
+    }
+
+    /** Always a new file: a closed segment is deleted once stored, so it must never be written again. */
+    private void openSegment() throws IOException {
+        Files.createDirectories(dir);
+        Path path;
+        do {
+            path = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber++, SEGMENT_SUFFIX));
+        } while (Files.exists(path));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        current = path;
+    }
+
+    private void closeQuietly() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close move journal segment {}: {}", current, e.getMessage());
+        }
+    }
+
+    /** Store journaled moves, a batch per transaction, until none are left or the database fails. */
+    private void flush() {
+        while (true) {
+            List<Entry> batch;
+            synchronized (flushLock) {
+                if (unflushed.isEmpty()) return;
+                batch = new ArrayList<>(Math.min(batchSize, unflushed.size()));
+                Iterator<Entry> it = unflushed.iterator();
+                while (batch.size() < batchSize && it.hasNext()) {
+                    batch.add(it.next());
+                }
+            }
+            try {
+                store(batch.stream().filter(e -> !unstorable.contains(e.gameId())).toList());
+                batch.stream().filter(e -> unstorable.contains(e.gameId())).forEach(e -> setAside(e, null));
+            } catch (Exception e) {
+                if (++failedFlushes < MAX_FLUSH_ATTEMPTS) {
+                    log.warn("Could not store {} journaled moves, will retry: {}", batch.size(), e.getMessage());
+                    return;
+                }
+                // The batch keeps failing: find the moves at fault so they do not hold back every other game.
+                int done = storeOneByOne(batch);
+                flushed(batch.subList(0, done));
+                if (done < batch.size()) return;
+            }
+            failedFlushes = 0;
+            flushed(batch);
+        }
+    }
+
+    /**
+     * Store the moves of a batch one at a time; a move the database refuses while it is reachable is set aside
+     * and aborts its game. Returns how many moves from the head of the batch are done, stopping early when the
+     * database is down.
+     */
+    private int storeOneByOne(List<Entry> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            if (unstorable.contains(entry.gameId())) {
+                setAside(entry, null);
+                continue;
+            }
+            try {
+                store(List.of(entry));
+            } catch (Exception e) {
+                if (!databaseReachable()) {
+                    log.warn("Could not store journaled moves, database unavailable, will retry: {}", e.getMessage());
+                    return i;
+                }
+                setAside(entry, e);
+                abort(entry.gameId());
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Storing later moves past the hole would move the game's position on without the move (packed games
+     * would silently drop the rest), so the game ends here.
+     */
+    private void abort(long gameId) {
+        unstorable.add(gameId);
+        try {
+            jdbcTemplate.update(ABORT_GAME, gameId);
+        } catch (Exception e) {
+            log.error("Could not mark game {} as aborted: {}", gameId, e.getMessage());
+        }
+        for (Consumer<Long> listener : unstorableListeners) {
+            try {
+                listener.accept(gameId);
+            } catch (RuntimeException e) {
+                log.warn("Abort of game {} not handled: {}", gameId, e.getMessage());
+            }
+        }
+    }
+
+    private boolean databaseReachable() {
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** Keep a move that will not be stored; {@code cause} is null for the later moves of an aborted game. */
+    private void setAside(Entry entry, Exception cause) {
+        Path file = dir.resolve(QUARANTINE_FILE);
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(encode(entry));
+        } catch (IOException e) {
+            log.error("Could not write {} to {}: {}", entry, file, e.getMessage());
+        }
+        if (cause != null) {
+            log.error("Journaled move {} of game {} refused by the database, game aborted, move set aside in {}: {}",
+                    entry.moveNumber(), entry.gameId(), file, entry, cause);
+        } else {
+            log.warn("Move {} of aborted game {} set aside in {}", entry.moveNumber(), entry.gameId(), file);
+        }
+    }
+
+    /** The head of the unflushed moves is stored (or set aside): release its games and segments. */
+    private void flushed(List<Entry> stored) {
+        if (stored.isEmpty()) return;
+        synchronized (flushLock) {
+            for (Entry entry : stored) {
+                unflushed.poll();
+                unflushedByGame.computeIfPresent(entry.gameId(), (id, n) -> n == 1 ? null : n - 1);
+            }
+            flushedSeq += stored.size();
+            flushLock.notifyAll();
+        }
+    }
+
+    /**
+     * Store the moves (rows, or appended to the game's packed moves) and bring each game to its last move of the
+     * batch. Everything already stored is skipped, so replaying a segment that was partly flushed before a crash
+     * is harmless.
+     */
+    private void store(List<Entry> batch) {
+        if (batch.isEmpty()) return;
+        Map<Long, Entry> lastByGame = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            lastByGame.put(entry.gameId(), entry);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Packed games and how many of their moves are stored; their plies are a prefix of the journal's
+            Map<Long, Integer> packedPlies = new HashMap<>();
+            String ids = String.join(",", Collections.nCopies(lastByGame.size(), "?"));
+            jdbcTemplate.query(SELECT_PACKED + "(" + ids + ")",
+                    rs -> {
+                        packedPlies.put(rs.getLong(1), rs.getInt(2));
+                    }, lastByGame.keySet().toArray());
+            List<Entry> rows = new ArrayList<>(batch.size());
+            Map<Long, List<Integer>> packedTails = new LinkedHashMap<>();
+            for (Entry e : batch) {
+                Integer plies = packedPlies.get(e.gameId());
+                if (plies == null) {
+                    rows.add(e);
+                } else if (e.moveNumber() > plies) {
+                    packedTails.computeIfAbsent(e.gameId(), id -> new ArrayList<>()).add(e.move());
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_MOVE, rows, rows.size(), (ps, e) -> {
+                ps.setLong(1, e.gameId());
+                ps.setInt(2, e.moveNumber());
+                ps.setString(3, e.fromSquare());
+                ps.setString(4, e.toSquare());
+                ps.setString(5, e.piece());
+                ps.setString(6, e.promotion());
+                ps.setLong(7, e.gameId());
+                ps.setInt(8, e.moveNumber());
+            });
+            jdbcTemplate.batchUpdate(APPEND_PACKED, packedTails.entrySet(), packedTails.size(), (ps, tail) -> {
+                ps.setBytes(1, PackedMoves.of(tail.getValue().stream().mapToInt(Integer::intValue).toArray()));
+                ps.setLong(2, tail.getKey());
+                ps.setInt(3, packedPlies.get(tail.getKey()));
+            });
+            jdbcTemplate.batchUpdate(UPDATE_GAME, lastByGame.values(), lastByGame.size(), (ps, e) -> {
+                ps.setLong(1, e.whiteRemainingMs());
+                ps.setLong(2, e.blackRemainingMs());
+                ps.setInt(3, GameService.toSeconds(e.whiteRemainingMs()));
+                ps.setInt(4, GameService.toSeconds(e.blackRemainingMs()));
+                ps.setObject(5, Instant.ofEpochMilli(e.turnStartedAtMs()));
+                ps.setString(6, e.fen());
+                ps.setInt(7, e.moveNumber());
+                ps.setLong(8, e.gameId());
+                ps.setInt(9, e.moveNumber());
+            });
+        });
+    }
+
+    /** Store the moves of segments left by the previous run, then delete them. */
+    private void replay() throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+        int replayed = 0;
+        for (Path segment : segments) {
+            List<Entry> entries = readSegment(segment);
+            for (int i = 0; i < entries.size(); i += batchSize) {
+                List<Entry> batch = entries.subList(i, Math.min(entries.size(), i + batchSize));
+                try {
+                    store(batch);
+                } catch (Exception e) {
+                    if (storeOneByOne(batch) < batch.size()) throw new IOException("Could not replay " + segment, e);
+                }
+            }
+            replayed += entries.size();
+            Files.delete(segment);
+        }
+        if (!segments.isEmpty()) log.info("Replayed {} journaled moves from {} segments", replayed, segments.size());
+    }
+
+    private static List<Entry> readSegment(Path segment) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                Entry entry = readRecord(in);
+                if (entry == null) break;
+                entries.add(entry);
+            }
+        } catch (EOFException e) {
+            log.warn("Move journal segment {} ends with a torn record; it was never acknowledged", segment.getFileName());
+        }
+        return entries;
+    }
+
+    /** Record: payload length, CRC-32 of the payload, payload. */
+    private static byte[] encode(Entry e) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        DataOutputStream p = new DataOutputStream(payload);
+        p.writeLong(e.gameId());
+        p.writeInt(e.moveNumber());
+        p.writeUTF(e.fromSquare());
+        p.writeUTF(e.toSquare());
+        p.writeUTF(e.piece() != null ? e.piece() : "");
+        p.writeUTF(e.promotion() != null ? e.promotion() : "");
+        p.writeShort(e.move());
+        p.writeLong(e.whiteRemainingMs());
+        p.writeLong(e.blackRemainingMs());
+        p.writeLong(e.turnStartedAtMs());
+        p.writeUTF(e.fen());
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 8);
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes);
+        return record.toByteArray();
+    }
+
+    /** The next record, or null at the end of the segment. A record failing its checksum ends the segment too. */
+    private static Entry readRecord(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        int checksum = in.readInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES) throw new EOFException();
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if ((int) crc.getValue() != checksum) throw new EOFException();
+        DataInputStream p = new DataInputStream(new ByteArrayInputStream(bytes));
+        long gameId = p.readLong();
+        int moveNumber = p.readInt();
+        String from = p.readUTF();
+        String to = p.readUTF();
+        String piece = p.readUTF();
+        String promotion = p.readUTF();
+        return new Entry(gameId, moveNumber, from, to, piece.isEmpty() ? null : piece, promotion.isEmpty() ? null : promotion,
+                p.readUnsignedShort(), p.readLong(), p.readLong(), p.readLong(), p.readUTF());
+    }
+}
@@ -0,0 +1,55 @@
+package com.chess.service;
+
+import com.chess.dto.MoveDto;
+import com.chess.engine.Move;
+import com.chess.engine.Piece;
+import com.chess.engine.Position;
+import com.chess.engine.Square;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A game's moves as one byte array: each move is its 16-bit {@link Move} code, big-endian, in play order.
+ * The moving piece is not stored; decoding replays the moves from the start position to recover it.
+ */
+final class PackedMoves {
+
+    static final byte[] EMPTY = new byte[0];
+
+    private PackedMoves() {
+    }
+
+    static byte[] of(int... moves) {
+        byte[] packed = new byte[moves.length * 2];
+        for (int i = 0; i < moves.length; i++) {
+            packed[2 * i] = (byte) (moves[i] >>> 8);
+            packed[2 * i + 1] = (byte) moves[i];
+        }
+        return packed;
+    }
+
+    static int count(byte[] packed) {
+        return packed.length / 2;
+    }
+
+    static int moveAt(byte[] packed, int index) {
+        return ((packed[2 * index] & 0xff) << 8) | (packed[2 * index + 1] & 0xff);
+    }
+
+    /** Numbered from 1, with the moving piece and promotion letters the row storage would hold. */
+    static List<MoveDto> decode(byte[] packed) {
+        int count = count(packed);
+        List<MoveDto> moves = new ArrayList<>(count);
+        Position position = Position.start();
+        for (int i = 0; i < count; i++) {
+            int move = moveAt(packed, i);
+            int piece = position.pieceAt(Move.from(move));
+            moves.add(new MoveDto(i + 1, Square.name(Move.from(move)), Square.name(Move.to(move)),
+                    piece == Piece.NONE ? null : String.valueOf(Piece.typeChar(Piece.type(piece))),
+                    ChessBoardService.promotionLetter(move)));
+            position.makeMove(move);
+        }
+        return moves;
+    }
+}
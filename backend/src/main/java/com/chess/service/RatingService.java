@@ -0,0 +1,133 @@
+package com.chess.service;
+
+import com.chess.entity.User;
+import com.chess.entity.UserStats;
+import com.chess.repository.UserRepository;
+import com.chess.repository.UserStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Applies Glicko-2 updates and {@link UserStats} totals when games end, off the thread that finished the game.
+ * Results go into a bounded queue; a single worker drains whatever has accumulated, replays those games in order
+ * on in-memory ratings and totals, and writes each player's final values once, for the whole batch, in one
+ * transaction. The new ratings then go to the {@link Leaderboard}.
+ */
+@Service
+@Slf4j
+public class RatingService {
+
+    private static final int MAX_BATCH = 500;
+
+    /** Finished game to rate; {@code whiteScore} is 1, 0.5 or 0. */
+    public record GameResult(Long gameId, Long whiteId, Long blackId, double whiteScore) {
+    }
+
+    private final UserRepository userRepository;
+    private final UserStatsRepository statsRepository;
+    private final Leaderboard leaderboard;
+    private final TransactionTemplate transactionTemplate;
+    private final double tau;
+    private final BlockingQueue<GameResult> queue;
+    private final Thread worker = new Thread(this::run, "ratings");
+
+    public RatingService(UserRepository userRepository, UserStatsRepository statsRepository, Leaderboard leaderboard,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${app.rating.tau:0.5}") double tau,
+                         @Value("${app.rating.queue-capacity:10000}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.statsRepository = statsRepository;
+        this.leaderboard = leaderboard;
+        this.transactionTemplate = transactionTemplate;
+        this.tau = tau;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Lets the worker rate what is already queued before the repositories go away. */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        worker.interrupt();
+        worker.join(5000);
+    }
+
+    /** Never blocks; when the queue is full the game is left unrated. */
+    public void submit(GameResult result) {
+        if (!queue.offer(result)) {
+            log.warn("Rating queue full, game {} is not rated", result.gameId());
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<GameResult> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+                if (!batch.isEmpty()) apply(batch);
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    private void apply(List<GameResult> batch) {
+        Set<Long> ids = new HashSet<>();
+        batch.forEach(r -> {
+            ids.add(r.whiteId());
+            ids.add(r.blackId());
+        });
+        try {
+            List<Leaderboard.Entry> entries = transactionTemplate.execute(status -> {
+                Map<Long, User> users = new HashMap<>();
+                Map<Long, Glicko2.Rating> ratings = new HashMap<>();
+                for (User user : userRepository.findAllById(ids)) {
+                    users.put(user.getId(), user);
+                    ratings.put(user.getId(), new Glicko2.Rating(user.getRating(), user.getRatingDeviation(), user.getRatingVolatility()));
+                }
+                Map<Long, UserStats> stats = new HashMap<>();
+                statsRepository.findAllById(ids).forEach(st -> stats.put(st.getUserId(), st));
+                for (GameResult r : batch) {
+                    Glicko2.Rating white = ratings.get(r.whiteId());
+                    Glicko2.Rating black = ratings.get(r.blackId());
+                    if (white == null || black == null) continue;
+                    ratings.put(r.whiteId(), Glicko2.update(white, black, r.whiteScore(), tau));
+                    ratings.put(r.blackId(), Glicko2.update(black, white, 1 - r.whiteScore(), tau));
+                    stats.computeIfAbsent(r.whiteId(), UserStats::new).record(r.whiteScore());
+                    stats.computeIfAbsent(r.blackId(), UserStats::new).record(1 - r.whiteScore());
+                }
+                ratings.forEach((id, rating) ->
+                        userRepository.updateRating(id, rating.rating(), rating.deviation(), rating.volatility()));
+                statsRepository.saveAll(stats.values());
+                return ratings.entrySet().stream()
+                        .map(e -> new Leaderboard.Entry(e.getKey(), users.get(e.getKey()).getUsername(),
+                                e.getValue().rating(), e.getValue().deviation()))
+                        .toList();
+            });
+            leaderboard.update(entries);
+            log.debug("Rated {} games for {} players", batch.size(), ids.size());
+        } catch (Exception e) {
+            log.error("Could not rate {} games: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.chess.service;
+
+import com.chess.dto.LeaderboardEntryDto;
+import com.chess.dto.UserStatsDto;
+import com.chess.entity.Game;
+import com.chess.entity.User;
+import com.chess.entity.UserStats;
+import com.chess.repository.GameRepository;
+import com.chess.repository.UserRepository;
+import com.chess.repository.UserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Per-user stats and the leaderboard; both read maintained aggregates, never the games table. */
+@Service
+@RequiredArgsConstructor
+public class StatsService {
+
+    private final UserRepository userRepository;
+    private final UserStatsRepository statsRepository;
+    private final GameRepository gameRepository;
+    private final Leaderboard leaderboard;
+
+    @Transactional(readOnly = true)
+    public UserStatsDto getUserStats(String username) {
+        User user = userRepository.findByUsernameIgnoreCase(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        UserStats stats = statsRepository.findById(user.getId()).orElseGet(() -> new UserStats(user.getId()));
+        return UserStatsDto.from(user, stats);
+    }
+
+    public List<LeaderboardEntryDto> getLeaderboard(int limit) {
+        List<Leaderboard.Entry> top = leaderboard.top(limit);
+        List<LeaderboardEntryDto> result = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            Leaderboard.Entry e = top.get(i);
+            result.add(new LeaderboardEntryDto(i + 1, e.username(), Math.round(e.rating()), Math.round(e.deviation())));
+        }
+        return result;
+    }
+
+    /**
+     * One-time upgrade: builds the totals from the games finished before stats were maintained. Only runs on an
+     * empty stats table; returns the number of games counted.
+     */
+    @Transactional
+    public int backfillStats(int batchSize) {
+        if (statsRepository.count() > 0) return 0;
+        Map<Long, UserStats> stats = new HashMap<>();
+        long afterId = 0;
+        int counted = 0;
+        List<Game> batch;
+        while (!(batch = gameRepository.findFinishedAfter(afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+            for (Game game : batch) {
+                double whiteScore = game.whiteScore();
+                stats.computeIfAbsent(game.getWhitePlayer().getId(), UserStats::new).record(whiteScore);
+                stats.computeIfAbsent(game.getBlackPlayer().getId(), UserStats::new).record(1 - whiteScore);
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            counted += batch.size();
+        }
+        statsRepository.saveAll(stats.values());
+        return counted;
+    }
+}
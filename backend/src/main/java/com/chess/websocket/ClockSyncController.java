@@ -0,0 +1,41 @@
+package com.chess.websocket;
+
+import com.chess.service.LagCompensationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Round-trip measurement for lag compensation: the client asks for a ping on /app/clock/ping,
+ * receives a token on /user/queue/clock and echoes it immediately on /app/clock/pong.
+ */
+@Controller
+@RequiredArgsConstructor
+public class ClockSyncController {
+
+    private final LagCompensationService lagCompensation;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @MessageMapping("/clock/ping")
+    public void ping(Principal principal) {
+        if (principal == null) return;
+        long token = lagCompensation.issuePing(principal.getName());
+        messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/clock",
+                Map.of("type", "PING", "token", Long.toString(token)));
+    }
+
+    @MessageMapping("/clock/pong")
+    public void pong(@Payload Map<String, Object> payload, Principal principal) {
+        if (principal == null || payload.get("token") == null) return;
+        try {
+            lagCompensation.recordPong(principal.getName(), Long.parseLong(payload.get("token").toString()));
+        } catch (NumberFormatException ignored) {
+            // malformed token: drop the sample
+        }
+    }
+}
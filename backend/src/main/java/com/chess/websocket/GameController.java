@@ -1,7 +1,9 @@
 package com.chess.websocket;
 
-import com.chess.dto.MoveDto;
-import com.chess.entity.GameMove;
+import com.chess.dto.GameDto;
+import com.chess.dto.GameEventDto;
+import com.chess.service.GameActors;
+import com.chess.service.GameEventLog;
 import com.chess.service.GameService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +14,10 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller("websocketGameController")
 @RequiredArgsConstructor
@@ -20,6 +25,8 @@ import java.util.Map;
 public class GameController {
 
     private final GameService gameService;
+    private final GameActors gameActors;
+    private final GameEventLog gameEvents;
     private final SimpMessagingTemplate messagingTemplate;
 
     @MessageMapping("/game/{gameId}/move")
@@ -28,20 +35,49 @@ public class GameController {
         String username = principal.getName();
         String from = (String) payload.get("fromSquare");
         String to = (String) payload.get("toSquare");
-        String piece = payload.containsKey("piece") ? (String) payload.get("piece") : "P";
         String promotion = payload.containsKey("promotion") ? (String) payload.get("promotion") : null;
         Integer moveNum = payload.get("moveNumber") != null ? ((Number) payload.get("moveNumber")).intValue() : null;
         if (from == null || to == null || moveNum == null) return;
+        // Applied in turn with the game's other commands; the MOVE event is published once the move has committed.
+        gameActors.submit(gameId, () -> gameService.recordMove(gameId, username, moveNum, from, to, promotion))
+                .whenComplete((move, e) -> {
+                    if (e instanceof RejectedExecutionException) {
+                        log.warn("Refusing move {} of game {} by {}: {}", moveNum, gameId, username, e.getMessage());
+                        sendError(username, gameId, "Server busy, move not accepted");
+                    } else if (e != null) {
+                        sendError(username, gameId, e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Resume after missed frames: {@code fromSeq} is the last sequence number the client applied. Replies on
+     * /user/queue/game with the missing events (SYNC), or with the full game (SNAPSHOT) when they are no
+     * longer buffered.
+     */
+    @MessageMapping("/game/{gameId}/sync")
+    public void sync(@DestinationVariable Long gameId, @Payload Map<String, Object> payload, Principal principal) {
+        if (principal == null) return;
+        long fromSeq = payload.get("fromSeq") instanceof Number n ? n.longValue() : 0;
         try {
-            GameMove move = gameService.recordMove(gameId, username, moveNum, from, to, piece, promotion);
-            MoveDto dto = MoveDto.fromEntity(move);
-            messagingTemplate.convertAndSend("/topic/game/" + gameId, Map.of(
-                    "type", "MOVE",
-                    "move", dto
-            ));
+            Optional<List<GameEventDto>> missing = gameEvents.since(gameId, fromSeq);
+            Map<String, Object> reply;
+            if (missing.isPresent()) {
+                reply = Map.of("type", "SYNC", "gameId", gameId, "events", missing.get());
+            } else {
+                GameDto game = gameService.getGame(gameId, principal.getName(), true);
+                long seq = game.getPlyCount() + ("ACTIVE".equals(game.getStatus()) ? 0 : 1);
+                reply = Map.of("type", "SNAPSHOT", "gameId", gameId, "seq", seq, "game", game);
+            }
+            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/game", reply);
         } catch (Exception e) {
-            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/errors",
-                    Map.of("message", e.getMessage(), "gameId", gameId));
+            sendError(principal.getName(), gameId, e.getMessage());
         }
     }
+
+    /** {@code message} is null for exceptions such as an NPE; the user still gets an error frame. */
+    private void sendError(String username, Long gameId, String message) {
+        messagingTemplate.convertAndSendToUser(username, "/queue/errors",
+                Map.of("message", message != null ? message : "Unexpected server error", "gameId", gameId));
+    }
 }
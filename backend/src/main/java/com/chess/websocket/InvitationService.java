@@ -1,55 +1,175 @@
 package com.chess.websocket;
 
+import com.chess.cluster.ClusterBus;
+import com.chess.entity.TimeControl;
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Pending invitations keyed by (sender, recipient), each expiring after a TTL. In relay mode every node keeps a
+ * replica: creations and removals are sent on the cluster bus so the recipient can accept or decline on whichever
+ * node they are connected to. Only the node that created an invitation tells the players when it expires.
+ */
 @Service
+@Slf4j
 public class InvitationService {
 
+    private static final String CHANNEL = "invitations";
+
     @Data
     public static class Invitation {
         private final String fromUsername;
         private final String toUsername;
+        private final TimeControl timeControl;
         private final long createdAt = System.currentTimeMillis();
-        private volatile boolean accepted;
-        private volatile boolean declined;
-        private Long gameId;
+        private final long expiresAt;
+        /** Created on this node (not a replica); the owner pushes EXPIRED. */
+        private final boolean owned;
     }
 
-    private final Map<String, Invitation> pendingByTo = new ConcurrentHashMap<>(); // toUsername -> invitation
+    /** Replicated change; REMOVED covers accept, decline, cancel and expiry. */
+    public record InvitationEvent(Type type, String fromUsername, String toUsername, TimeControl timeControl) {
+        public enum Type { CREATED, REMOVED }
+    }
 
-    public Invitation create(String fromUsername, String toUsername) {
-        if (pendingByTo.containsKey(toUsername)) {
-            return null; // already has pending
+    /** Case-folded (sender, recipient); usernames are unique ignoring case. */
+    private record Key(String from, String to) {
+        static Key of(String from, String to) {
+            return new Key(from.toLowerCase(Locale.ROOT), to.toLowerCase(Locale.ROOT));
         }
-        Invitation inv = new Invitation(fromUsername, toUsername);
-        pendingByTo.put(toUsername, inv);
+    }
+
+    private record Expiry(long atMs, Key key, Invitation invitation) {
+    }
+
+    private final ClusterBus clusterBus;
+    private final PresenceService presenceService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long ttlMs;
+
+    private final Map<Key, Invitation> pending = new ConcurrentHashMap<>();
+    /**
+     * Expiry times, earliest first. Entries of invitations that were answered stay until they surface and are
+     * skipped then, so polling costs O(expired invitations).
+     */
+    private final PriorityQueue<Expiry> expiries = new PriorityQueue<>(Comparator.comparingLong(Expiry::atMs));
+
+    public InvitationService(ClusterBus clusterBus, PresenceService presenceService, SimpMessagingTemplate messagingTemplate,
+                             @Value("${app.invitation.ttl-seconds:60}") long ttlSeconds) {
+        this.clusterBus = clusterBus;
+        this.presenceService = presenceService;
+        this.messagingTemplate = messagingTemplate;
+        this.ttlMs = ttlSeconds * 1000;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        clusterBus.subscribe(CHANNEL, InvitationEvent.class, (node, event) -> {
+            Key key = Key.of(event.fromUsername(), event.toUsername());
+            if (event.type() == InvitationEvent.Type.CREATED) {
+                add(key, event.fromUsername(), event.toUsername(), event.timeControl(), false);
+            } else {
+                pending.remove(key);
+            }
+        });
+        presenceService.onLocalOffline(this::cancelAllOf);
+    }
+
+    /** Returns null when {@code fromUsername} already has a pending invitation to {@code toUsername}. */
+    public Invitation create(String fromUsername, String toUsername, TimeControl timeControl) {
+        Invitation inv = add(Key.of(fromUsername, toUsername), fromUsername, toUsername, timeControl, true);
+        if (inv == null) return null;
+        clusterBus.publish(CHANNEL, new InvitationEvent(InvitationEvent.Type.CREATED, fromUsername, toUsername, timeControl));
+        return inv;
+    }
+
+    public Invitation get(String fromUsername, String toUsername) {
+        return pending.get(Key.of(fromUsername, toUsername));
+    }
+
+    /** Pending invitations addressed to {@code toUsername}, oldest first. */
+    public List<Invitation> getPendingFor(String toUsername) {
+        String to = toUsername.toLowerCase(Locale.ROOT);
+        return pending.entrySet().stream()
+                .filter(e -> e.getKey().to().equals(to))
+                .map(Map.Entry::getValue)
+                .sorted(Comparator.comparingLong(Invitation::getCreatedAt))
+                .toList();
+    }
+
+    /**
+     * Take the invitation off the pending set (accept, decline or cancel). Returns it, or null when it is no
+     * longer pending, so at most one caller acts on it.
+     */
+    public Invitation remove(String fromUsername, String toUsername) {
+        Invitation inv = pending.remove(Key.of(fromUsername, toUsername));
+        if (inv != null) publishRemoved(inv);
         return inv;
     }
 
-    public Invitation getPendingFor(String toUsername) {
-        return pendingByTo.get(toUsername);
+    /** Drop expired invitations; the players are told about the ones created on this node. */
+    @Scheduled(fixedRate = 1000)
+    public void expireInvitations() {
+        for (Expiry expiry : pollExpired(System.currentTimeMillis())) {
+            Invitation inv = expiry.invitation();
+            if (!pending.remove(expiry.key(), inv) || !inv.isOwned()) continue;
+            publishRemoved(inv);
+            notify(inv.getFromUsername(), Map.of("type", "EXPIRED", "toUsername", inv.getToUsername()));
+            notify(inv.getToUsername(), Map.of("type", "EXPIRED", "fromUsername", inv.getFromUsername()));
+        }
     }
 
-    public void accept(String toUsername, Long gameId) {
-        Invitation inv = pendingByTo.get(toUsername);
-        if (inv != null) {
-            inv.setAccepted(true);
-            inv.setGameId(gameId);
+    /** A user left: their invitations go away and the other side of each one is told. */
+    private void cancelAllOf(String username) {
+        if (presenceService.isConnected(username)) return; // still connected to another node
+        String user = username.toLowerCase(Locale.ROOT);
+        for (Map.Entry<Key, Invitation> e : pending.entrySet()) {
+            Key key = e.getKey();
+            if (!key.from().equals(user) && !key.to().equals(user)) continue;
+            Invitation inv = e.getValue();
+            if (!pending.remove(key, inv)) continue;
+            publishRemoved(inv);
+            if (key.from().equals(user)) {
+                notify(inv.getToUsername(), Map.of("type", "CANCELLED", "fromUsername", inv.getFromUsername()));
+            } else {
+                notify(inv.getFromUsername(), Map.of("type", "CANCELLED", "toUsername", inv.getToUsername()));
+            }
         }
     }
 
-    public void decline(String toUsername) {
-        Invitation inv = pendingByTo.remove(toUsername);
-        if (inv != null) {
-            inv.setDeclined(true);
+    private Invitation add(Key key, String fromUsername, String toUsername, TimeControl timeControl, boolean owned) {
+        long now = System.currentTimeMillis();
+        Invitation inv = new Invitation(fromUsername, toUsername, timeControl, now + ttlMs, owned);
+        if (pending.putIfAbsent(key, inv) != null) return null;
+        synchronized (expiries) {
+            expiries.add(new Expiry(inv.getExpiresAt(), key, inv));
         }
+        return inv;
+    }
+
+    private List<Expiry> pollExpired(long nowMs) {
+        List<Expiry> expired = new ArrayList<>();
+        synchronized (expiries) {
+            while (!expiries.isEmpty() && expiries.peek().atMs() <= nowMs) {
+                expired.add(expiries.poll());
+            }
+        }
+        return expired;
+    }
+
+    private void notify(String username, Map<String, Object> message) {
+        messagingTemplate.convertAndSendToUser(username, "/queue/invitations", message);
     }
 
-    public void remove(String toUsername) {
-        pendingByTo.remove(toUsername);
+    private void publishRemoved(Invitation inv) {
+        clusterBus.publish(CHANNEL, new InvitationEvent(InvitationEvent.Type.REMOVED, inv.getFromUsername(), inv.getToUsername(), null));
     }
 }
@@ -1,6 +1,7 @@
 package com.chess.websocket;
 
 import com.chess.entity.Game;
+import com.chess.entity.TimeControl;
 import com.chess.service.GameService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +12,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.util.Locale;
 import java.util.Map;
 
 @Controller
@@ -23,6 +25,7 @@ public class LobbyController {
     private final WebSocketEventHandler eventHandler;
     private final InvitationService invitationService;
     private final GameService gameService;
+    private final MatchmakingService matchmakingService;
 
     @MessageMapping("/lobby/join")
     public void joinLobby(SimpMessageHeaderAccessor accessor, Principal principal) {
@@ -30,25 +33,37 @@ public class LobbyController {
         String sessionId = accessor.getSessionId();
         String username = principal.getName();
         presenceService.register(sessionId, username);
-        eventHandler.broadcastConnectedUsers();
-        // Send current list directly to this user so they always get it (avoids missed broadcast)
-        messagingTemplate.convertAndSendToUser(username, "/queue/lobby/users",
-                Map.of("usernames", presenceService.getConnectedUsernames()));
+        // Send current list directly to this user; later changes arrive as deltas on the presence topic
+        eventHandler.sendSnapshot(username);
+    }
+
+    /** Sent by a client that detected a gap in the presence deltas. */
+    @MessageMapping("/lobby/sync")
+    public void syncLobby(Principal principal) {
+        if (principal == null) return;
+        eventHandler.sendSnapshot(principal.getName());
     }
 
     @MessageMapping("/lobby/invite")
-    public void invite(@Payload Map<String, String> payload, Principal principal) {
+    public void invite(@Payload Map<String, Object> payload, Principal principal) {
         if (principal == null) return;
         String fromUsername = principal.getName();
-        String toUsername = payload.get("toUsername");
+        String toUsername = (String) payload.get("toUsername");
         if (toUsername == null || toUsername.isBlank()) return;
         if (fromUsername.equalsIgnoreCase(toUsername)) return;
         String targetUser = presenceService.resolveConnectedUsername(toUsername).orElse(null);
         if (targetUser == null) return;
-        InvitationService.Invitation inv = invitationService.create(fromUsername, targetUser);
+        TimeControl timeControl;
+        try {
+            timeControl = parseTimeControl(payload.get("timeControl"));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        InvitationService.Invitation inv = invitationService.create(fromUsername, targetUser, timeControl);
         if (inv == null) return;
         messagingTemplate.convertAndSendToUser(targetUser, "/queue/invitations",
-                Map.of("fromUsername", fromUsername, "type", "INVITATION"));
+                Map.of("fromUsername", fromUsername, "type", "INVITATION", "timeControl", timeControl,
+                        "expiresAtEpochMs", inv.getExpiresAt()));
         log.debug("Invitation sent from {} to {}", fromUsername, targetUser);
     }
 
@@ -58,13 +73,13 @@ public class LobbyController {
         String toUsername = principal.getName();
         String fromUsername = (String) payload.get("fromUsername");
         if (fromUsername == null) return;
-        InvitationService.Invitation inv = invitationService.getPendingFor(toUsername);
-        if (inv == null || !inv.getFromUsername().equalsIgnoreCase(fromUsername)) return;
+        InvitationService.Invitation inv = invitationService.remove(fromUsername, toUsername);
+        if (inv == null) return;
+        matchmakingService.leave(inv.getFromUsername());
+        matchmakingService.leave(toUsername);
         String fromPrincipal = presenceService.resolveConnectedUsername(fromUsername).orElse(inv.getFromUsername());
-        Game game = gameService.createGame(inv.getFromUsername(), toUsername);
+        Game game = gameService.createGame(inv.getFromUsername(), toUsername, inv.getTimeControl());
         Long gameId = game.getId();
-        invitationService.accept(toUsername, gameId);
-        invitationService.remove(toUsername);
         Map<String, Object> msg = Map.of("type", "ACCEPTED", "toUsername", toUsername, "gameId", gameId,
                 "whiteUsername", inv.getFromUsername(), "blackUsername", toUsername);
         messagingTemplate.convertAndSendToUser(fromPrincipal, "/queue/invitations", msg);
@@ -77,12 +92,67 @@ public class LobbyController {
         String toUsername = principal.getName();
         String fromUsername = payload.get("fromUsername");
         if (fromUsername == null) return;
-        InvitationService.Invitation inv = invitationService.getPendingFor(toUsername);
-        if (inv != null && inv.getFromUsername().equalsIgnoreCase(fromUsername)) {
-            invitationService.decline(toUsername);
-            String fromPrincipal = presenceService.resolveConnectedUsername(fromUsername).orElse(fromUsername);
+        InvitationService.Invitation inv = invitationService.remove(fromUsername, toUsername);
+        if (inv != null) {
+            String fromPrincipal = presenceService.resolveConnectedUsername(fromUsername).orElse(inv.getFromUsername());
             messagingTemplate.convertAndSendToUser(fromPrincipal, "/queue/invitations",
                     Map.of("type", "DECLINED", "toUsername", toUsername));
         }
     }
+
+    /** The sender withdraws an invitation that has not been answered yet. */
+    @MessageMapping("/lobby/cancel")
+    public void cancelInvitation(@Payload Map<String, String> payload, Principal principal) {
+        if (principal == null) return;
+        String fromUsername = principal.getName();
+        String toUsername = payload.get("toUsername");
+        if (toUsername == null) return;
+        InvitationService.Invitation inv = invitationService.remove(fromUsername, toUsername);
+        if (inv != null) {
+            String toPrincipal = presenceService.resolveConnectedUsername(toUsername).orElse(inv.getToUsername());
+            messagingTemplate.convertAndSendToUser(toPrincipal, "/queue/invitations",
+                    Map.of("type", "CANCELLED", "fromUsername", fromUsername));
+        }
+    }
+
+    /** Look for an opponent automatically; the optional "timeControl" is the same as for an invite. */
+    @MessageMapping("/lobby/queue/join")
+    public void joinQueue(@Payload(required = false) Map<String, Object> payload, Principal principal) {
+        if (principal == null) return;
+        TimeControl timeControl;
+        try {
+            timeControl = parseTimeControl(payload != null ? payload.get("timeControl") : null);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        matchmakingService.join(principal.getName(), timeControl);
+        messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/invitations",
+                Map.of("type", "QUEUED", "timeControl", timeControl));
+    }
+
+    @MessageMapping("/lobby/queue/leave")
+    public void leaveQueue(Principal principal) {
+        if (principal == null) return;
+        matchmakingService.leave(principal.getName());
+    }
+
+    /**
+     * Optional "timeControl" object of an invite, in seconds:
+     * {@code {"baseSeconds": 180, "incrementSeconds": 2, "delaySeconds": 0, "delayMode": "NONE"}}.
+     */
+    private static TimeControl parseTimeControl(Object raw) {
+        if (!(raw instanceof Map<?, ?> tc)) return TimeControl.defaults();
+        long base = secondsToMs(tc.get("baseSeconds"), TimeControl.DEFAULT_BASE_MS);
+        long increment = secondsToMs(tc.get("incrementSeconds"), 0);
+        long delay = secondsToMs(tc.get("delaySeconds"), 0);
+        TimeControl.DelayMode mode = tc.get("delayMode") != null
+                ? TimeControl.DelayMode.valueOf(tc.get("delayMode").toString().toUpperCase(Locale.ROOT))
+                : TimeControl.DelayMode.NONE;
+        return TimeControl.of(base, increment, mode, delay);
+    }
+
+    private static long secondsToMs(Object value, long defaultMs) {
+        if (value instanceof Number n) return Math.round(n.doubleValue() * 1000);
+        return defaultMs;
+    }
 }
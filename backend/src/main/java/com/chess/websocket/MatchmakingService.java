@@ -0,0 +1,267 @@
+package com.chess.websocket;
+
+import com.chess.entity.Game;
+import com.chess.entity.TimeControl;
+import com.chess.entity.User;
+import com.chess.repository.UserRepository;
+import com.chess.service.GameService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Automatic pairing of players waiting for a game with the same time control. Joins and leaves are only
+ * appended to a lock-free inbox; a single pairing thread owns the waiting players, grouped by time control and
+ * by rating bucket, and pairs them every tick. The accepted rating difference widens the longer a player
+ * waits. The games found in one tick are created in one batch and pushed on /user/queue/invitations as MATCHED.
+ * Queues are per node: in relay mode players are only paired with players connected to the same node.
+ */
+@Service
+@Slf4j
+public class MatchmakingService {
+
+    /** Width of a rating bucket; a player's search looks at the buckets covering their band. */
+    private static final int BUCKET_WIDTH = 50;
+    private static final int MAX_GAMES_PER_BATCH = 100;
+
+    private sealed interface Command permits Join, Leave {
+    }
+
+    private record Join(String username, TimeControl timeControl, long atMs) implements Command {
+    }
+
+    private record Leave(String username) implements Command {
+    }
+
+    private record Ticket(String username, double rating, Pool pool, TimeControl timeControl, long joinedAtMs) {
+    }
+
+    /** Same time control, hence the same pool; TimeControl itself has no value equality. */
+    private record PoolKey(long baseMs, long incrementMs, long delayMs, TimeControl.DelayMode delayMode) {
+        static PoolKey of(TimeControl tc) {
+            return new PoolKey(tc.getBaseMs(), tc.getIncrementMs(), tc.getDelayMs(), tc.getDelayMode());
+        }
+    }
+
+    private final GameService gameService;
+    private final UserRepository userRepository;
+    private final PresenceService presenceService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long tickMs;
+    private final double initialBand;
+    private final double bandPerSecond;
+    private final double maxBand;
+
+    private final Queue<Command> inbox = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService loop = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "matchmaking");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Owned by the pairing thread
+    private final Map<PoolKey, Pool> pools = new HashMap<>();
+    private final Map<String, Ticket> waiting = new HashMap<>();
+    private volatile int waitingCount;
+
+    public MatchmakingService(GameService gameService, UserRepository userRepository, PresenceService presenceService,
+                              SimpMessagingTemplate messagingTemplate,
+                              @Value("${app.matchmaking.tick-ms:250}") long tickMs,
+                              @Value("${app.matchmaking.initial-band:100}") double initialBand,
+                              @Value("${app.matchmaking.band-per-second:10}") double bandPerSecond,
+                              @Value("${app.matchmaking.max-band:500}") double maxBand) {
+        this.gameService = gameService;
+        this.userRepository = userRepository;
+        this.presenceService = presenceService;
+        this.messagingTemplate = messagingTemplate;
+        this.tickMs = tickMs;
+        this.initialBand = initialBand;
+        this.bandPerSecond = bandPerSecond;
+        this.maxBand = maxBand;
+    }
+
+    @PostConstruct
+    void start() {
+        presenceService.onLocalOffline(this::leave);
+        loop.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        loop.shutdownNow();
+    }
+
+    /** Queue {@code username} for a game with this time control; joining again replaces the earlier request. */
+    public void join(String username, TimeControl timeControl) {
+        inbox.add(new Join(username, timeControl, System.currentTimeMillis()));
+    }
+
+    public void leave(String username) {
+        inbox.add(new Leave(username));
+    }
+
+    /** Players waiting for an opponent as of the last tick. */
+    public int waitingCount() {
+        return waitingCount;
+    }
+
+    private void tick() {
+        try {
+            drainInbox();
+            long now = System.currentTimeMillis();
+            List<Ticket[]> matches = new ArrayList<>();
+            for (Pool pool : pools.values()) {
+                pool.pair(now, matches);
+            }
+            for (int i = 0; i < matches.size(); i += MAX_GAMES_PER_BATCH) {
+                startGames(matches.subList(i, Math.min(matches.size(), i + MAX_GAMES_PER_BATCH)));
+            }
+            pools.values().removeIf(Pool::isEmpty);
+            waitingCount = waiting.size();
+        } catch (Exception e) {
+            log.error("Matchmaking tick failed", e);
+        }
+    }
+
+    private void drainInbox() {
+        List<Join> joins = new ArrayList<>();
+        Command command;
+        while ((command = inbox.poll()) != null) {
+            if (command instanceof Join join) {
+                joins.add(join);
+            } else {
+                String username = ((Leave) command).username();
+                joins.removeIf(j -> j.username().equals(username));
+                remove(username);
+            }
+        }
+        if (joins.isEmpty()) return;
+        // One query for the ratings of everyone who joined since the last tick
+        Map<String, Double> ratings = userRepository.findByUsernameIn(joins.stream().map(Join::username).toList())
+                .stream().collect(Collectors.toMap(User::getUsername, User::getRating));
+        for (Join join : joins) {
+            Double rating = ratings.get(join.username());
+            if (rating == null) continue;
+            remove(join.username());
+            Pool pool = pools.computeIfAbsent(PoolKey.of(join.timeControl()), k -> new Pool());
+            Ticket ticket = new Ticket(join.username(), rating, pool, join.timeControl(), join.atMs());
+            waiting.put(join.username(), ticket);
+            pool.add(ticket);
+        }
+    }
+
+    private void remove(String username) {
+        Ticket ticket = waiting.remove(username);
+        if (ticket != null) ticket.pool().remove(ticket);
+    }
+
+    private void startGames(List<Ticket[]> matches) {
+        List<GameService.Pairing> pairings = new ArrayList<>(matches.size());
+        for (Ticket[] match : matches) {
+            boolean firstIsWhite = ThreadLocalRandom.current().nextBoolean();
+            Ticket white = firstIsWhite ? match[0] : match[1];
+            Ticket black = firstIsWhite ? match[1] : match[0];
+            pairings.add(new GameService.Pairing(white.username(), black.username(), white.timeControl()));
+        }
+        List<Game> games;
+        try {
+            games = gameService.createGames(pairings);
+        } catch (Exception e) {
+            log.warn("Could not create {} matched games, players stay queued: {}", pairings.size(), e.getMessage());
+            for (Ticket[] match : matches) {
+                for (Ticket t : match) {
+                    waiting.put(t.username(), t);
+                    t.pool().add(t);
+                }
+            }
+            return;
+        }
+        for (Game game : games) {
+            Map<String, Object> msg = Map.of("type", "MATCHED", "gameId", game.getId(),
+                    "whiteUsername", game.getWhitePlayer().getUsername(),
+                    "blackUsername", game.getBlackPlayer().getUsername(),
+                    "timeControl", game.getTimeControl());
+            messagingTemplate.convertAndSendToUser(game.getWhitePlayer().getUsername(), "/queue/invitations", msg);
+            messagingTemplate.convertAndSendToUser(game.getBlackPlayer().getUsername(), "/queue/invitations", msg);
+        }
+    }
+
+    private double band(Ticket ticket, long nowMs) {
+        double waitedSeconds = (nowMs - ticket.joinedAtMs()) / 1000.0;
+        return Math.min(maxBand, initialBand + bandPerSecond * waitedSeconds);
+    }
+
+    private static int bucketOf(double rating) {
+        return (int) Math.floor(rating / BUCKET_WIDTH);
+    }
+
+    /** Waiting players of one time control, by join order and by rating bucket. */
+    private final class Pool {
+        private final Set<Ticket> byAge = new LinkedHashSet<>();
+        private final TreeMap<Integer, Set<Ticket>> buckets = new TreeMap<>();
+
+        void add(Ticket ticket) {
+            byAge.add(ticket);
+            buckets.computeIfAbsent(bucketOf(ticket.rating()), b -> new LinkedHashSet<>()).add(ticket);
+        }
+
+        void remove(Ticket ticket) {
+            byAge.remove(ticket);
+            int bucket = bucketOf(ticket.rating());
+            Set<Ticket> tickets = buckets.get(bucket);
+            if (tickets != null && tickets.remove(ticket) && tickets.isEmpty()) buckets.remove(bucket);
+        }
+
+        boolean isEmpty() {
+            return byAge.isEmpty();
+        }
+
+        /**
+         * Longest-waiting players pick first. Each takes the closest of the earliest acceptable candidates of the
+         * buckets within its band; a candidate is acceptable when the difference is within both players' bands.
+         */
+        void pair(long nowMs, List<Ticket[]> out) {
+            for (Ticket ticket : new ArrayList<>(byAge)) {
+                if (!byAge.contains(ticket)) continue; // taken as an opponent earlier in this pass
+                Ticket opponent = findOpponent(ticket, nowMs);
+                if (opponent == null) continue;
+                remove(ticket);
+                remove(opponent);
+                waiting.remove(ticket.username());
+                waiting.remove(opponent.username());
+                out.add(new Ticket[]{ticket, opponent});
+            }
+        }
+
+        private Ticket findOpponent(Ticket ticket, long nowMs) {
+            double band = band(ticket, nowMs);
+            int reach = (int) Math.ceil(band / BUCKET_WIDTH);
+            int center = bucketOf(ticket.rating());
+            Ticket best = null;
+            double bestDiff = Double.MAX_VALUE;
+            for (Set<Ticket> bucket : buckets.subMap(center - reach, true, center + reach, true).values()) {
+                for (Ticket candidate : bucket) {
+                    if (candidate == ticket) continue;
+                    double diff = Math.abs(candidate.rating() - ticket.rating());
+                    if (diff > band || diff > band(candidate, nowMs)) continue;
+                    if (diff < bestDiff) {
+                        best = candidate;
+                        bestDiff = diff;
+                    }
+                    break;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -1,33 +1,135 @@
 package com.chess.websocket;
 
+import com.chess.cluster.ClusterBus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+/**
+ * Who is in the lobby. Local sessions are tracked here; in relay mode users of the other nodes are replicated
+ * through the {@link ClusterBus}. Every change of the visible set bumps a version and is reported as a
+ * JOIN/LEAVE {@link LobbyDelta}, so clients can apply deltas in order and ask for a snapshot on a gap.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class PresenceService {
 
+    private static final String CHANNEL = "presence";
+    /** A node that has not announced its users for this long is considered gone. */
+    private static final long REMOTE_NODE_TTL_MS = 15_000;
+
+    /** Presence change replicated to the other nodes; SNAPSHOT lists every user connected to the sender. */
+    public record PresenceEvent(Type type, String username, List<String> usernames) {
+        public enum Type { ONLINE, OFFLINE, SNAPSHOT }
+    }
+
+    /** One change of the visible lobby; {@code version} increases by one per delta. */
+    public record LobbyDelta(long version, Type type, String username) {
+        public enum Type { JOIN, LEAVE }
+    }
+
+    /** The visible lobby at {@code version}. */
+    public record LobbySnapshot(long version, List<String> usernames) {
+    }
+
+    private static final class RemoteNode {
+        final Set<String> usernames = ConcurrentHashMap.newKeySet();
+        volatile long lastSeenMs = System.currentTimeMillis();
+    }
+
+    private final ClusterBus clusterBus;
+
     // sessionId -> username
     private final Map<String, String> sessionToUser = new ConcurrentHashMap<>();
-    // username -> sessionId (single session per user for simplicity)
-    private final Map<String, String> userToSession = new ConcurrentHashMap<>();
+    // username -> that user's sessions on this node (one per tab); only changed through compute, so per user atomic
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+    // nodeId -> users connected to that node (relay mode only)
+    private final Map<String, RemoteNode> remoteNodes = new ConcurrentHashMap<>();
+
+    /**
+     * Visible lobby (local and remote users) keyed by case-folded username, mapped to the principal name.
+     * Only changed through compute, which also numbers the change, so updates are serialized per user.
+     */
+    private final Map<String, String> visibleByKey = new ConcurrentHashMap<>();
+    private final AtomicLong lastVersion = new AtomicLong();
+    // Deltas numbered but not yet handed to the listeners; drained in version order by one thread at a time
+    private final ConcurrentSkipListMap<Long, LobbyDelta> undelivered = new ConcurrentSkipListMap<>();
+    private final AtomicBoolean delivering = new AtomicBoolean();
+    private volatile long deliveredVersion;
+    private final List<Consumer<LobbyDelta>> deltaListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> offlineListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void subscribeToCluster() {
+        clusterBus.subscribe(CHANNEL, PresenceEvent.class, this::applyRemote);
+    }
+
+    /** Listeners are called in version order, one delta at a time; they should only hand the delta off. */
+    public void onLobbyDelta(Consumer<LobbyDelta> listener) {
+        deltaListeners.add(listener);
+    }
+
+    /** Called with the username when a user closes their last session on this node. */
+    public void onLocalOffline(Consumer<String> listener) {
+        offlineListeners.add(listener);
+    }
 
+    /**
+     * Add a session of {@code username}. Only the first session makes the user go online; further tabs and
+     * repeated joins of the same session change nothing visible.
+     */
     public void register(String sessionId, String username) {
-        String oldSession = userToSession.get(username);
-        if (oldSession != null) {
-            sessionToUser.remove(oldSession);
+        String previous = sessionToUser.put(sessionId, username);
+        if (previous != null && !previous.equals(username)) {
+            removeSession(previous, sessionId);
+        }
+        boolean[] first = new boolean[1];
+        sessionsByUser.compute(username, (user, sessions) -> {
+            Set<String> result = sessions != null ? sessions : new HashSet<>();
+            first[0] = result.isEmpty();
+            result.add(sessionId);
+            return result;
+        });
+        if (first[0]) {
+            clusterBus.publish(CHANNEL, new PresenceEvent(PresenceEvent.Type.ONLINE, username, null));
+            refreshVisibility(username);
         }
-        sessionToUser.put(sessionId, username);
-        userToSession.put(username, sessionId);
     }
 
+    /** Drop a session; the user goes offline when it was their last one. */
     public void unregister(String sessionId) {
         String username = sessionToUser.remove(sessionId);
-        if (username != null && userToSession.get(username) != null && userToSession.get(username).equals(sessionId)) {
-            userToSession.remove(username);
+        if (username != null) {
+            removeSession(username, sessionId);
+        }
+    }
+
+    private void removeSession(String username, String sessionId) {
+        boolean[] last = new boolean[1];
+        sessionsByUser.computeIfPresent(username, (user, sessions) -> {
+            if (!sessions.remove(sessionId)) return sessions;
+            last[0] = sessions.isEmpty();
+            return last[0] ? null : sessions;
+        });
+        if (last[0]) {
+            // An OFFLINE racing a new ONLINE may reach other nodes out of order; the next SNAPSHOT repairs that.
+            clusterBus.publish(CHANNEL, new PresenceEvent(PresenceEvent.Type.OFFLINE, username, null));
+            refreshVisibility(username);
+            // A new tab may have connected meanwhile: its invitations and queue entry must survive.
+            if (!sessionsByUser.containsKey(username)) {
+                offlineListeners.forEach(listener -> listener.accept(username));
+            }
         }
     }
 
@@ -35,27 +137,130 @@ public class PresenceService {
         return sessionToUser.get(sessionId);
     }
 
-    public String getSessionId(String username) {
-        return userToSession.get(username);
+    /** Sessions of {@code username} on this node. */
+    public Set<String> getSessionIds(String username) {
+        Set<String> ids = new HashSet<>();
+        sessionsByUser.computeIfPresent(username, (user, sessions) -> {
+            ids.addAll(sessions);
+            return sessions;
+        });
+        return ids;
     }
 
+    /** Users connected to this node and, in relay mode, to the other nodes. */
     public List<String> getConnectedUsernames() {
-        return new ArrayList<>(userToSession.keySet());
+        return snapshot().usernames();
+    }
+
+    /**
+     * Every delta up to {@code version} is included; later ones may be too, which is harmless as JOIN and LEAVE
+     * are applied as set operations.
+     */
+    public LobbySnapshot snapshot() {
+        long version = deliveredVersion;
+        return new LobbySnapshot(version, new ArrayList<>(visibleByKey.values()));
+    }
+
+    /** Version of the last delta handed to the listeners. */
+    public long version() {
+        return deliveredVersion;
+    }
+
+    public boolean hasLocalSessions() {
+        return !sessionsByUser.isEmpty();
     }
 
     public boolean isConnected(String username) {
-        return userToSession.containsKey(username);
+        return username != null && username.equals(visibleByKey.get(key(username)));
     }
 
     /**
      * Resolve the exact username used when registering (principal name) so that
      * convertAndSendToUser targets the right session (Spring matches by principal name).
+     * Usernames are unique ignoring case, so the folded name identifies at most one user.
      */
     public Optional<String> resolveConnectedUsername(String username) {
         if (username == null || username.isBlank()) return Optional.empty();
-        if (userToSession.containsKey(username)) return Optional.of(username);
-        return userToSession.keySet().stream()
-                .filter(u -> u.equalsIgnoreCase(username))
-                .findFirst();
+        return Optional.ofNullable(visibleByKey.get(key(username)));
+    }
+
+    /** Relay mode: re-announce local users (repairs lost deltas) and forget nodes that went silent. */
+    @Scheduled(fixedRate = 5000)
+    public void announceToCluster() {
+        clusterBus.publish(CHANNEL, new PresenceEvent(PresenceEvent.Type.SNAPSHOT, null, new ArrayList<>(sessionsByUser.keySet())));
+        long cutoff = System.currentTimeMillis() - REMOTE_NODE_TTL_MS;
+        for (Map.Entry<String, RemoteNode> e : remoteNodes.entrySet()) {
+            if (e.getValue().lastSeenMs >= cutoff) continue;
+            log.info("Node {} stopped announcing presence, dropping its {} users", e.getKey(), e.getValue().usernames.size());
+            remoteNodes.remove(e.getKey());
+            e.getValue().usernames.forEach(this::refreshVisibility);
+        }
+    }
+
+    private void applyRemote(String nodeId, PresenceEvent event) {
+        RemoteNode node = remoteNodes.computeIfAbsent(nodeId, id -> new RemoteNode());
+        node.lastSeenMs = System.currentTimeMillis();
+        switch (event.type()) {
+            case ONLINE -> node.usernames.add(event.username());
+            case OFFLINE -> node.usernames.remove(event.username());
+            case SNAPSHOT -> {
+                Set<String> changed = new HashSet<>(node.usernames);
+                changed.addAll(event.usernames());
+                node.usernames.retainAll(event.usernames());
+                node.usernames.addAll(event.usernames());
+                changed.forEach(this::refreshVisibility);
+                return;
+            }
+        }
+        refreshVisibility(event.username());
+    }
+
+    /** Re-evaluate whether {@code username} is in the lobby and emit a delta if that changed. */
+    private void refreshVisibility(String username) {
+        LobbyDelta[] delta = new LobbyDelta[1];
+        visibleByKey.compute(key(username), (key, visible) -> {
+            boolean online = sessionsByUser.containsKey(username)
+                    || remoteNodes.values().stream().anyMatch(node -> node.usernames.contains(username));
+            if (online && visible == null) {
+                delta[0] = new LobbyDelta(lastVersion.incrementAndGet(), LobbyDelta.Type.JOIN, username);
+                return username;
+            }
+            if (!online && username.equals(visible)) {
+                delta[0] = new LobbyDelta(lastVersion.incrementAndGet(), LobbyDelta.Type.LEAVE, username);
+                return null;
+            }
+            return visible;
+        });
+        if (delta[0] == null) return;
+        undelivered.put(delta[0].version(), delta[0]);
+        deliver();
+    }
+
+    /**
+     * Hand queued deltas to the listeners in version order. Whoever finds the next one queued delivers it and any
+     * that follow; other threads return at once, and a delta queued meanwhile is picked up by the re-check.
+     */
+    private void deliver() {
+        while (undelivered.containsKey(deliveredVersion + 1) && delivering.compareAndSet(false, true)) {
+            try {
+                LobbyDelta next;
+                while ((next = undelivered.remove(deliveredVersion + 1)) != null) {
+                    for (Consumer<LobbyDelta> listener : deltaListeners) {
+                        try {
+                            listener.accept(next);
+                        } catch (RuntimeException e) {
+                            log.warn("Lobby delta {} not delivered: {}", next.version(), e.getMessage());
+                        }
+                    }
+                    deliveredVersion = next.version();
+                }
+            } finally {
+                delivering.set(false);
+            }
+        }
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
     }
 }
@@ -1,5 +1,7 @@
 package com.chess.websocket;
 
+import com.chess.cluster.ClusterBus;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -9,35 +11,51 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
-import java.util.List;
 import java.util.Map;
 
+/**
+ * Pushes lobby presence as JOIN/LEAVE deltas. Versions are per node, so each node has its own topic; clients
+ * learn it from the snapshot sent on /app/lobby/join or /app/lobby/sync.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketEventHandler {
 
+    private static final String PRESENCE_TOPIC_PREFIX = "/topic/lobby/presence.";
+
     private final PresenceService presenceService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterBus clusterBus;
+
+    @PostConstruct
+    void publishDeltas() {
+        presenceService.onLobbyDelta(delta -> messagingTemplate.convertAndSend(presenceTopic(),
+                Map.of("type", delta.type(), "version", delta.version(), "username", delta.username())));
+    }
 
     @EventListener
     public void handleDisconnect(SessionDisconnectEvent event) {
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
         String sessionId = accessor.getSessionId();
         presenceService.unregister(sessionId);
-        broadcastConnectedUsers();
     }
 
-    public void broadcastConnectedUsers() {
-        List<String> users = presenceService.getConnectedUsernames();
-        messagingTemplate.convertAndSend("/topic/lobby/users", Map.of("usernames", users));
+    public String presenceTopic() {
+        return PRESENCE_TOPIC_PREFIX + clusterBus.nodeId();
+    }
+
+    /** Full lobby to one user, with the topic carrying the deltas that follow it. */
+    public void sendSnapshot(String username) {
+        PresenceService.LobbySnapshot snapshot = presenceService.snapshot();
+        messagingTemplate.convertAndSendToUser(username, "/queue/lobby/users", Map.of("type", "SNAPSHOT",
+                "version", snapshot.version(), "usernames", snapshot.usernames(), "topic", presenceTopic()));
     }
 
-    /** Resync lobby list for all clients every 2s so no one misses an update (e.g. when another user joins). */
+    /** Current version every 2s, so a client that lost a delta notices it and asks for a snapshot. */
     @Scheduled(fixedRate = 2000)
-    public void broadcastLobbyPeriodically() {
-        if (!presenceService.getConnectedUsernames().isEmpty()) {
-            broadcastConnectedUsers();
-        }
+    public void broadcastLobbyVersion() {
+        if (!presenceService.hasLocalSessions()) return;
+        messagingTemplate.convertAndSend(presenceTopic(), Map.of("type", "HEARTBEAT", "version", presenceService.version()));
     }
 }
@@ -0,0 +1,161 @@
+package com.chess.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two nodes' cluster buses over the STOMP relay, against an embedded Artemis broker configured as the README
+ * describes (STOMP acceptor with /queue/ and /topic/ prefixes).
+ */
+class StompRelayClusterBusTest {
+
+    record Ping(String text, int number) {
+    }
+
+    /** One backend node: a relay on the broker channel, as WebSocketConfig sets it up, and its cluster bus. */
+    private static final class Node {
+        final StompBrokerRelayMessageHandler relay;
+        final StompRelayClusterBus bus;
+        final CountDownLatch available = new CountDownLatch(1);
+
+        Node(int brokerPort) {
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            relay = new StompBrokerRelayMessageHandler(new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(),
+                    brokerChannel, List.of("/topic", "/queue"));
+            relay.setRelayHost("127.0.0.1");
+            relay.setRelayPort(brokerPort);
+            SimpMessagingTemplate template = new SimpMessagingTemplate(brokerChannel);
+            template.setMessageConverter(new MappingJackson2MessageConverter());
+            bus = new StompRelayClusterBus(template, relay, new ObjectMapper());
+            relay.setApplicationEventPublisher(event -> {
+                if (event instanceof BrokerAvailabilityEvent availability) {
+                    bus.onBrokerAvailability(availability);
+                    if (availability.isBrokerAvailable()) available.countDown();
+                }
+            });
+            bus.subscribeOnSystemConnection();
+        }
+
+        void start() throws InterruptedException {
+            relay.start();
+            assertTrue(available.await(10, TimeUnit.SECONDS), "relay connected to the broker");
+        }
+    }
+
+    @TempDir
+    Path dataDir;
+
+    private EmbeddedActiveMQ broker;
+    private int port;
+    private final List<Node> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void startBroker() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ConfigurationImpl config = new ConfigurationImpl();
+        config.setBrokerInstance(dataDir.toFile());
+        config.setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .addAcceptorConfiguration("stomp",
+                        "tcp://127.0.0.1:" + port + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+        broker = new EmbeddedActiveMQ().setConfiguration(config);
+        broker.start();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        nodes.forEach(node -> node.relay.stop());
+        broker.stop();
+    }
+
+    @Test
+    void eventsReachTheOtherNodesOnly() throws Exception {
+        Node a = node();
+        Node b = node();
+        Node c = node();
+        BlockingQueue<String> atA = listen(a, "pings");
+        BlockingQueue<String> atB = listen(b, "pings");
+        BlockingQueue<String> atC = listen(c, "pings");
+        BlockingQueue<String> otherChannelAtB = listen(b, "other");
+        awaitSubscribed(a, b, c);
+
+        a.bus.publish("pings", new Ping("hello", 1));
+
+        String expected = a.bus.nodeId() + " Ping[text=hello, number=1]";
+        assertEquals(expected, atB.poll(5, TimeUnit.SECONDS));
+        assertEquals(expected, atC.poll(5, TimeUnit.SECONDS));
+        assertNull(atA.poll(300, TimeUnit.MILLISECONDS), "a node does not hear itself");
+        assertNull(otherChannelAtB.poll(), "listeners only get their channel");
+    }
+
+    @Test
+    void eventsPublishedBeforeTheBrokerIsReachableAreDropped() throws Exception {
+        Node a = new Node(port);
+        nodes.add(a);
+        a.bus.publish("pings", new Ping("lost", 0)); // not connected yet: no error, nothing sent
+        Node b = node();
+        BlockingQueue<String> atB = listen(b, "pings");
+        a.start();
+        awaitSubscribed(a, b);
+
+        a.bus.publish("pings", new Ping("after", 2));
+
+        assertEquals(a.bus.nodeId() + " Ping[text=after, number=2]", atB.poll(5, TimeUnit.SECONDS));
+        assertNull(atB.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    private Node node() throws InterruptedException {
+        Node node = new Node(port);
+        nodes.add(node);
+        node.start();
+        return node;
+    }
+
+    private static BlockingQueue<String> listen(Node node, String channel) {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        node.bus.subscribe(channel, Ping.class, (from, ping) -> received.add(from + " " + ping));
+        return received;
+    }
+
+    /**
+     * The system subscriptions are sent right after the relay connects; wait until the broker has one consumer per
+     * node on the cluster topic so no event is published before everyone listens.
+     */
+    private void awaitSubscribed(Node... expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (consumers() < expected.length && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected.length, consumers());
+    }
+
+    private long consumers() {
+        return broker.getActiveMQServer().getSessions().stream()
+                .mapToLong(session -> session.getServerConsumers().size()).sum();
+    }
+}
@@ -0,0 +1,117 @@
+package com.chess.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The automatic draws of {@link Termination}: repetition counted on Zobrist hashes, the fifty-move rule and
+ * material that cannot mate. The server applies them without a claim, so positions past the fivefold and
+ * 75-move limits are draws as well.
+ */
+class DrawRulesTest {
+
+    private static final String KNIGHTS_OUT_AND_BACK = "g1f3 g8f6 f3g1 f6g8";
+
+    @Test
+    void thirdOccurrenceIsADraw() {
+        Position position = Position.start();
+        play(position, KNIGHTS_OUT_AND_BACK);
+        assertEquals(2, position.repetitions());
+        assertNull(Termination.of(position));
+
+        play(position, KNIGHTS_OUT_AND_BACK);
+        assertEquals(3, position.repetitions());
+        assertEquals(Termination.THREEFOLD_REPETITION, Termination.of(position));
+    }
+
+    @Test
+    void fifthOccurrenceIsStillADraw() {
+        Position position = Position.start();
+        for (int i = 0; i < 4; i++) {
+            play(position, KNIGHTS_OUT_AND_BACK);
+        }
+        assertEquals(5, position.repetitions());
+        assertEquals(Termination.THREEFOLD_REPETITION, Termination.of(position));
+    }
+
+    @Test
+    void lostCastlingRightsMakeADifferentPosition() {
+        Position position = Position.start();
+        play(position, "e2e4 e7e5");
+        long withRights = position.hash();
+        play(position, "e1e2 e8e7 e2e1 e7e8");
+        assertEquals(1, position.repetitions());
+        assertNotEquals(withRights, position.hash());
+
+        play(position, "e1e2 e8e7 e2e1 e7e8 e1e2 e8e7 e2e1 e7e8");
+        assertEquals(Termination.THREEFOLD_REPETITION, Termination.of(position));
+    }
+
+    @Test
+    void hashMatchesTheSamePositionReadFromFen() {
+        Position position = Position.start();
+        play(position, "e2e4 c7c5 g1f3 d7d6 d2d4 c5d4 f3d4 g8f6 b1c3 a7a6");
+        assertEquals(Position.fromFen(position.toFen()).hash(), position.hash());
+        for (int i = 0; i < 10; i++) {
+            position.unmakeMove();
+        }
+        assertEquals(Position.start().hash(), position.hash());
+    }
+
+    @ParameterizedTest(name = "halfmove clock {0}")
+    @CsvSource({
+            "98, false",
+            "99, true",
+            "149, true"
+    })
+    void hundredPliesWithoutCaptureOrPawnMoveIsADraw(int clockBefore, boolean draw) {
+        Position position = Position.fromFen("8/8/8/4k3/8/8/1P6/R3K3 w - - " + clockBefore + " 90");
+        play(position, "a1a3");
+        assertEquals(clockBefore + 1, position.halfmoveClock());
+        assertEquals(draw ? Termination.FIFTY_MOVE_RULE : null, Termination.of(position));
+    }
+
+    @Test
+    void pawnMoveResetsTheFiftyMoveCount() {
+        Position position = Position.fromFen("8/8/8/4k3/8/8/1P6/R3K3 w - - 99 90");
+        play(position, "b2b4");
+        assertEquals(0, position.halfmoveClock());
+        assertNull(Termination.of(position));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            bare kings                    | 8/8/8/4k3/8/8/8/4K3 w - - 0 1       | true
+            king and bishop               | 8/8/8/4k3/8/8/8/2B1K3 w - - 0 1     | true
+            king and knight               | 8/8/8/4k3/8/8/8/1N2K3 w - - 0 1     | true
+            bishops on dark squares       | 5b2/8/8/4k3/8/8/8/2B1K3 w - - 0 1   | true
+            bishops on both colors        | 2b5/8/8/4k3/8/8/8/2B1K3 w - - 0 1   | false
+            two knights                   | 8/8/8/4k3/8/8/8/1N2K1N1 w - - 0 1   | false
+            knight against bishop         | 8/8/1b6/4k3/8/8/8/1N2K3 w - - 0 1   | false
+            king and pawn                 | 8/8/8/4k3/8/8/4P3/4K3 w - - 0 1     | false
+            """)
+    void insufficientMaterial(String name, String fen, boolean draw) {
+        Position position = Position.fromFen(fen);
+        assertEquals(draw, position.isInsufficientMaterial(), name);
+        assertEquals(draw ? Termination.INSUFFICIENT_MATERIAL : null, Termination.of(position), name);
+    }
+
+    /** Play moves given in UCI notation, each of which must be legal. */
+    private static void play(Position position, String moves) {
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for (String uci : moves.split(" ")) {
+            int n = MoveGenerator.generateLegal(position, legal);
+            int move = -1;
+            for (int i = 0; i < n; i++) {
+                if (Move.toUci(legal[i]).equals(uci)) move = legal[i];
+            }
+            if (move < 0) throw new IllegalArgumentException("Illegal move " + uci + " in " + position.toFen());
+            position.makeMove(move);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.chess.engine;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Perft: leaf node counts of the legal move tree for the standard reference positions (chessprogramming.org
+ * "Perft Results"). Any move generator or make/unmake regression changes a count, and the position must come
+ * back unchanged after the search.
+ */
+class PerftTest {
+
+    @ParameterizedTest(name = "{0} depth {2}")
+    @CsvSource(delimiter = '|', textBlock = """
+            startpos  | rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1                 | 5 | 4865609
+            kiwipete  | r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1     | 4 | 4085603
+            position3 | 8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1                                 | 5 | 674624
+            position4 | r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1         | 4 | 422333
+            position5 | rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8                | 4 | 2103487
+            position6 | r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10 | 4 | 3894594
+            """)
+    void matchesReferenceCounts(String name, String fen, int depth, long expected) {
+        Position position = Position.fromFen(fen);
+        assertEquals(expected, perft(position, depth, new int[depth + 1][MoveGenerator.MAX_MOVES]), name);
+        assertEquals(fen, position.toFen(), "position restored after " + name);
+    }
+
+    /** Leaf node count at {@code depth}; the last ply is counted without being played. */
+    private static long perft(Position position, int depth, int[][] buffers) {
+        int[] moves = buffers[depth];
+        int n = MoveGenerator.generateLegal(position, moves);
+        if (depth <= 1) return depth == 1 ? n : 1;
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            position.makeMove(moves[i]);
+            nodes += perft(position, depth - 1, buffers);
+            position.unmakeMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.chess.engine;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mate and stalemate as the server checks them after each move. {@link MoveGenerator#hasLegalMove} stops at the
+ * first legal move, so it must agree with a full generation on every position.
+ */
+class TerminationTest {
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', nullValues = "-", textBlock = """
+            start position          | rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1            | -
+            scholar's mate          | r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4  | CHECKMATE
+            fool's mate             | rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3      | CHECKMATE
+            back rank mate          | R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 40                                 | CHECKMATE
+            check with an escape    | rnbqkbnr/ppppp1pp/5p2/7Q/4P3/8/PPPP1PPP/RNB1KBNR b KQkq - 1 2      | -
+            check by a capture only | 6rk/6pp/8/8/8/8/8/K5QR b - - 0 1                                   | -
+            queen stalemate         | 7k/5Q2/6K1/8/8/8/8/8 b - - 0 1                                     | STALEMATE
+            pawn stalemate          | 8/8/8/8/8/2k5/2p5/2K5 w - - 0 1                                    | STALEMATE
+            pinned last piece       | 8/8/8/8/8/1k6/8/KB5r w - - 0 1                                     | STALEMATE
+            mate on the 100th ply   | R5k1/5ppp/8/8/8/8/8/6K1 b - - 100 80                               | CHECKMATE
+            stalemate at 100 plies  | 7k/5Q2/6K1/8/8/8/8/8 b - - 100 80                                  | STALEMATE
+            """)
+    void endsTheGame(String name, String fen, Termination expected) {
+        Position position = Position.fromFen(fen);
+        assertEquals(expected, Termination.of(position), name);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        assertEquals(MoveGenerator.generateLegal(position, moves) > 0, MoveGenerator.hasLegalMove(position), name);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "CHECKMATE, false",
+            "STALEMATE, true",
+            "THREEFOLD_REPETITION, true",
+            "FIFTY_MOVE_RULE, true",
+            "INSUFFICIENT_MATERIAL, true"
+    })
+    void onlyCheckmateHasAWinner(Termination termination, boolean draw) {
+        assertEquals(draw, termination.isDraw());
+    }
+}
@@ -0,0 +1,55 @@
+package com.chess.service;
+
+import com.chess.service.Glicko2.Rating;
+import com.chess.service.Glicko2.Result;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checked against the worked example of Glickman's "Example of the Glicko-2 system" (τ = 0.5). */
+class Glicko2Test {
+
+    private static final Rating PLAYER = new Rating(1500, 200, 0.06);
+    private static final List<Result> EXAMPLE = List.of(
+            new Result(new Rating(1400, 30, 0.06), 1),
+            new Result(new Rating(1550, 100, 0.06), 0),
+            new Result(new Rating(1700, 300, 0.06), 0));
+
+    @Test
+    void matchesGlickmansExample() {
+        Rating rated = Glicko2.update(PLAYER, EXAMPLE, 0.5);
+        assertEquals(1464.06, rated.rating(), 0.01);
+        assertEquals(151.52, rated.deviation(), 0.01);
+        assertEquals(0.05999, rated.volatility(), 0.00001);
+    }
+
+    @Test
+    void oneGameIsAPeriodOfOneResult() {
+        Rating opponent = new Rating(1700, 300, 0.06);
+        assertEquals(Glicko2.update(PLAYER, List.of(new Result(opponent, 0.5)), 0.5),
+                Glicko2.update(PLAYER, opponent, 0.5, 0.5));
+    }
+
+    @Test
+    void periodWithoutGamesOnlyWidensTheDeviation() {
+        Rating rated = Glicko2.update(PLAYER, List.of(), 0.5);
+        assertEquals(1500, rated.rating());
+        assertEquals(Math.sqrt(200 * 200 + Math.pow(0.06 * 173.7178, 2)), rated.deviation(), 0.001);
+        assertEquals(0.06, rated.volatility());
+    }
+
+    @Test
+    void deviationStaysWithinBounds() {
+        Rating certain = Glicko2.update(new Rating(2000, 30, 0.06), new Rating(2000, 50, 0.06), 0.5, 0.5);
+        assertEquals(Glicko2.MIN_DEVIATION, certain.deviation());
+
+        Rating unknown = new Rating(1500, Glicko2.DEFAULT_DEVIATION, 0.06);
+        assertEquals(Glicko2.DEFAULT_DEVIATION, Glicko2.update(unknown, List.of(), 0.5).deviation());
+        Rating rated = Glicko2.update(unknown, new Rating(1500, 350, 0.06), 1, 0.5);
+        assertTrue(rated.deviation() < Glicko2.DEFAULT_DEVIATION);
+        assertTrue(rated.rating() > 1500);
+    }
+}
@@ -0,0 +1,59 @@
+package com.chess.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LagCompensationServiceTest {
+
+    private final LagCompensationService lag = new LagCompensationService(60);
+
+    @Test
+    void nothingIsCreditedBeforeAMeasurement() {
+        assertNull(lag.roundTripMs("alice"));
+        assertEquals(0, lag.compensationMs("alice"));
+    }
+
+    @Test
+    void wrongTokenDiscardsThePing() throws InterruptedException {
+        long token = lag.issuePing("alice");
+        lag.recordPong("bob", token);
+        lag.recordPong("alice", token + 1);
+        lag.recordPong("alice", token);
+        assertNull(lag.roundTripMs("alice"));
+        assertNull(lag.roundTripMs("bob"));
+
+        token = lag.issuePing("alice");
+        Thread.sleep(50);
+        lag.recordPong("alice", token);
+        lag.recordPong("alice", token);
+        assertTrue(lag.roundTripMs("alice") >= 50);
+    }
+
+    @Test
+    void lateEchoDoesNotRaiseTheEstimate() throws InterruptedException {
+        lag.recordPong("alice", lag.issuePing("alice"));
+        long fast = lag.roundTripMs("alice");
+
+        long token = lag.issuePing("alice");
+        Thread.sleep(200);
+        lag.recordPong("alice", token);
+
+        assertEquals(fast, lag.roundTripMs("alice"));
+        assertEquals(fast / 2, lag.compensationMs("alice"));
+    }
+
+    @Test
+    void slowerNetworkForAWholeWindowRaisesTheEstimateUpToTheCap() throws InterruptedException {
+        lag.recordPong("alice", lag.issuePing("alice"));
+        for (int i = 0; i < 5; i++) {
+            long token = lag.issuePing("alice");
+            Thread.sleep(150);
+            lag.recordPong("alice", token);
+        }
+        assertTrue(lag.roundTripMs("alice") >= 150);
+        assertEquals(60, lag.compensationMs("alice"));
+    }
+}
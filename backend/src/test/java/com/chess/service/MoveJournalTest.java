@@ -0,0 +1,237 @@
+package com.chess.service;
+
+import com.chess.engine.Move;
+import com.chess.engine.Square;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The move journal against an in-memory database: a journal that is never stopped stands for a crash, and a new
+ * journal on the same directory replays what it left.
+ */
+class MoveJournalTest {
+
+    private static final AtomicLong DATABASES = new AtomicLong();
+    /** Long enough that a "crashed" journal never stores anything itself. */
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactions;
+    private final List<MoveJournal> running = new ArrayList<>();
+
+    @BeforeEach
+    void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:journal" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbc.execute("CREATE TABLE games (id BIGINT PRIMARY KEY, status VARCHAR(20) NOT NULL, packed_moves VARBINARY(100000), "
+                + "ply_count INT NOT NULL, white_remaining_ms BIGINT, black_remaining_ms BIGINT, "
+                + "white_remaining_seconds INT, black_remaining_seconds INT, turn_started_at TIMESTAMP WITH TIME ZONE, "
+                + "fen VARCHAR(4096))");
+        jdbc.execute("CREATE TABLE game_moves (id BIGINT AUTO_INCREMENT PRIMARY KEY, game_id BIGINT NOT NULL, "
+                + "move_number INT NOT NULL, from_square VARCHAR(2), to_square VARCHAR(2), piece VARCHAR(1), promotion VARCHAR(1))");
+    }
+
+    @AfterEach
+    void stopJournals() {
+        running.forEach(MoveJournal::stop);
+    }
+
+    @Test
+    void replaysMovesJournaledBeforeACrash() throws IOException {
+        game(1, false);
+        MoveJournal crashed = start(NEVER);
+        crashed.append(entry(1, 1, "e2e4"));
+        crashed.append(entry(1, 2, "e7e5"));
+        crashed.append(entry(1, 3, "g1f3"));
+        assertEquals(0, rows(1));
+
+        start(NEVER);
+
+        assertEquals(List.of("e2e4", "e7e5", "g1f3"), jdbc.queryForList(
+                "SELECT from_square || to_square FROM game_moves WHERE game_id = 1 ORDER BY move_number", String.class));
+        assertEquals(3, plyCount(1));
+        assertEquals("fen-3", jdbc.queryForObject("SELECT fen FROM games WHERE id = 1", String.class));
+    }
+
+    @Test
+    void replayStopsAtATornRecord() throws IOException {
+        game(1, false);
+        MoveJournal crashed = start(NEVER);
+        crashed.append(entry(1, 1, "e2e4"));
+        crashed.append(entry(1, 2, "e7e5"));
+        // A third record cut short by the crash: its length and checksum, then part of the payload
+        try (OutputStream out = Files.newOutputStream(onlySegment(), StandardOpenOption.APPEND)) {
+            out.write(ByteBuffer.allocate(18).putInt(100).putInt(12345).array());
+        }
+
+        start(NEVER);
+
+        assertEquals(2, rows(1));
+        assertEquals(2, plyCount(1));
+    }
+
+    @Test
+    void replayStopsAtARecordFailingItsChecksum() throws IOException {
+        game(1, false);
+        MoveJournal crashed = start(NEVER);
+        crashed.append(entry(1, 1, "e2e4"));
+        crashed.append(entry(1, 2, "e7e5"));
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 1; // last byte of the second record's FEN
+        Files.write(segment, bytes);
+
+        start(NEVER);
+
+        assertEquals(1, rows(1));
+        assertEquals(1, plyCount(1));
+    }
+
+    @Test
+    void replaySkipsMovesStoredBeforeTheCrash() throws IOException {
+        int e4 = move("e2e4"), e5 = move("e7e5"), nf3 = move("g1f3");
+        game(1, false);
+        game(2, true);
+        MoveJournal crashed = start(NEVER);
+        for (long gameId : new long[] {1, 2}) {
+            crashed.append(entry(gameId, 1, "e2e4"));
+            crashed.append(entry(gameId, 2, "e7e5"));
+            crashed.append(entry(gameId, 3, "g1f3"));
+        }
+        // The first move of each game was flushed before the crash, the segment not deleted yet
+        jdbc.update("INSERT INTO game_moves (game_id, move_number, from_square, to_square, piece) VALUES (1, 1, 'e2', 'e4', 'P')");
+        jdbc.update("UPDATE games SET ply_count = 1, packed_moves = ? WHERE id = 2", (Object) PackedMoves.of(e4));
+        jdbc.update("UPDATE games SET ply_count = 1 WHERE id = 1");
+
+        start(NEVER);
+
+        assertEquals(3, rows(1));
+        assertEquals(3, plyCount(1));
+        assertArrayEquals(PackedMoves.of(e4, e5, nf3),
+                jdbc.queryForObject("SELECT packed_moves FROM games WHERE id = 2", byte[].class));
+        assertEquals(3, plyCount(2));
+    }
+
+    @Test
+    void refusedMoveAbortsItsGameOnly() throws Exception {
+        game(1, false);
+        game(2, false);
+        jdbc.execute("ALTER TABLE game_moves ADD CONSTRAINT poison CHECK (to_square <> 'e5')");
+        MoveJournal journal = start(10);
+        CompletableFuture<Long> aborted = new CompletableFuture<>();
+        journal.onUnstorable(aborted::complete);
+
+        journal.append(entry(1, 1, "e2e4"));
+        journal.append(entry(1, 2, "e7e5"));
+        journal.append(entry(2, 1, "d2d4"));
+
+        assertEquals(1L, aborted.get(10, TimeUnit.SECONDS));
+        journal.awaitFlushed(1L);
+        journal.awaitFlushed(2L);
+        assertEquals("ABORTED", jdbc.queryForObject("SELECT status FROM games WHERE id = 1", String.class));
+        assertEquals(1, plyCount(1));
+        assertEquals(1, rows(1));
+        assertEquals("ACTIVE", jdbc.queryForObject("SELECT status FROM games WHERE id = 2", String.class));
+        assertEquals(1, plyCount(2));
+        assertTrue(Files.size(dir.resolve("quarantined.journal")) > 0);
+        assertThrows(IllegalStateException.class, () -> journal.append(entry(1, 3, "g1f3")));
+    }
+
+    @Test
+    void segmentsAreDeletedOnceStored() throws Exception {
+        game(1, false);
+        MoveJournal journal = start(50);
+        // Records near the size limit, so 1500 of them fill more than one segment
+        String padding = "x".repeat(3000);
+        int moves = 1500;
+        for (int n = 1; n <= moves; n++) {
+            journal.append(new MoveJournal.Entry(1, n, "e2", "e4", "P", null, move("e2e4"), 1000, 1000,
+                    System.currentTimeMillis(), padding + n));
+        }
+        Path first = dir.resolve("moves-00000000000000000000.journal");
+
+        journal.awaitFlushed(1L);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.exists(first) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(List.of(dir.resolve("moves-00000000000000000001.journal")), segments(),
+                "the full segment is deleted once stored, the one written to is kept");
+        assertEquals(moves, rows(1));
+        assertEquals(moves, plyCount(1));
+        journal.stop();
+        running.remove(journal);
+        assertEquals(List.of(), segments());
+    }
+
+    private MoveJournal start(long flushIntervalMs) throws IOException {
+        MoveJournal journal = new MoveJournal(jdbc, transactions, true, dir.toString(), flushIntervalMs, 500, "simple");
+        journal.start();
+        if (flushIntervalMs != NEVER) running.add(journal);
+        return journal;
+    }
+
+    private void game(long id, boolean packed) {
+        jdbc.update("INSERT INTO games (id, status, packed_moves, ply_count) VALUES (?, 'ACTIVE', ?, 0)",
+                id, packed ? PackedMoves.EMPTY : null);
+    }
+
+    private static MoveJournal.Entry entry(long gameId, int moveNumber, String uci) {
+        return new MoveJournal.Entry(gameId, moveNumber, uci.substring(0, 2), uci.substring(2, 4), "P", null,
+                move(uci), 600_000, 600_000, System.currentTimeMillis(), "fen-" + moveNumber);
+    }
+
+    private static int move(String uci) {
+        return Move.of(Square.parse(uci.substring(0, 2)), Square.parse(uci.substring(2, 4)));
+    }
+
+    private int rows(long gameId) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM game_moves WHERE game_id = ?", Integer.class, gameId);
+    }
+
+    private int plyCount(long gameId) {
+        return jdbc.queryForObject("SELECT ply_count FROM games WHERE id = ?", Integer.class, gameId);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("moves-")).toList();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.chess.service;
+
+import com.chess.cluster.ClusterBus;
+import com.chess.dto.MoveDto;
+import com.chess.engine.Position;
+import com.chess.entity.Game;
+import com.chess.entity.GameMove;
+import com.chess.entity.User;
+import com.chess.repository.GameMoveRepository;
+import com.chess.repository.GameRepository;
+import com.chess.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Backfilling row-stored games to packed moves keeps every game as it was, rows that cannot be replayed included. */
+@DataJpaTest
+@Import(GameService.class)
+class PackedMovesBackfillTest {
+
+    private static final String CASTLING = "e2e4 e7e5 g1f3 b8c6 f1c4 d7d6 e1g1 c8g4 d2d3 d8d7 b1c3 e8c8";
+    private static final String UNDERPROMOTION = "a2a3 b7b5 a3a4 b5a4 b2b3 a4b3 c1b2 b3c2 b2c3 c2d1n";
+
+    @MockBean GameEventLog gameEvents;
+    @MockBean LiveGameCache liveGames;
+    @MockBean ClockDeadlineQueue clockDeadlines;
+    @MockBean LagCompensationService lagCompensation;
+    @MockBean ClusterBus clusterBus;
+    @MockBean RatingService ratings;
+    @MockBean MoveJournal moveJournal;
+    @MockBean GameActors gameActors;
+
+    @Autowired GameService gameService;
+    @Autowired GameRepository gameRepository;
+    @Autowired GameMoveRepository moveRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired TestEntityManager entityManager;
+
+    @Test
+    void packedGamesReplayToTheRowStoredGame() {
+        Game castling = rowGame(CASTLING);
+        Game underpromotion = rowGame(UNDERPROMOTION);
+        List<MoveDto> castlingRows = gameService.getMoves(castling.getId());
+        List<MoveDto> underpromotionRows = gameService.getMoves(underpromotion.getId());
+
+        assertEquals(2, gameService.backfillPackedMoves(1));
+        entityManager.clear();
+
+        for (Game game : List.of(castling, underpromotion)) {
+            assertNotNull(gameRepository.findById(game.getId()).orElseThrow().getPackedMoves());
+            assertEquals(List.of(), moveRepository.findByGameIdOrderByMoveNumberAsc(game.getId()));
+        }
+        assertEquals(castlingRows, gameService.getMoves(castling.getId()));
+        assertEquals(underpromotionRows, gameService.getMoves(underpromotion.getId()));
+        assertEquals(castling.getFen(), replay(castling.getId()).toFen());
+        assertEquals(underpromotion.getFen(), replay(underpromotion.getId()).toFen());
+        assertEquals(0, gameService.backfillPackedMoves(10));
+    }
+
+    @Test
+    void gameThatCannotBeReplayedKeepsItsRows() {
+        Game broken = rowGame("e2e4 e7e5");
+        entityManager.persist(GameMove.builder().game(broken).moveNumber(3).fromSquare("e3").toSquare("e4").piece("P").build());
+        entityManager.flush();
+
+        assertEquals(0, gameService.backfillPackedMoves(10));
+        entityManager.clear();
+
+        assertNull(gameRepository.findById(broken.getId()).orElseThrow().getPackedMoves());
+        assertEquals(3, moveRepository.findByGameIdOrderByMoveNumberAsc(broken.getId()).size());
+    }
+
+    /** A finished game stored the way {@code recordMove} stores rows. */
+    private Game rowGame(String moves) {
+        List<MoveDto> rows = PackedMovesTest.asStored(moves);
+        Position position = Position.start();
+        rows.forEach(m -> ChessBoardService.applyMove(position, m.getFromSquare(), m.getToSquare(), m.getPromotion()));
+        Game game = entityManager.persist(Game.builder()
+                .whitePlayer(user("white"))
+                .blackPlayer(user("black"))
+                .status(Game.GameStatus.FINISHED)
+                .fen(position.toFen())
+                .plyCount(rows.size())
+                .build());
+        for (MoveDto m : rows) {
+            entityManager.persist(GameMove.builder().game(game).moveNumber(m.getMoveNumber())
+                    .fromSquare(m.getFromSquare()).toSquare(m.getToSquare())
+                    .piece(m.getPiece()).promotion(m.getPromotion()).build());
+        }
+        entityManager.flush();
+        return game;
+    }
+
+    private User user(String name) {
+        return userRepository.findByUsername(name)
+                .orElseGet(() -> entityManager.persist(User.builder().username(name).password("x").build()));
+    }
+
+    private Position replay(Long gameId) {
+        Position position = Position.start();
+        for (MoveDto m : gameService.getMoves(gameId)) {
+            ChessBoardService.applyMove(position, m.getFromSquare(), m.getToSquare(), m.getPromotion());
+        }
+        return position;
+    }
+}
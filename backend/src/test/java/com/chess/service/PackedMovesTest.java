@@ -0,0 +1,68 @@
+package com.chess.service;
+
+import com.chess.dto.MoveDto;
+import com.chess.engine.Position;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Packed games decode to the same moves, piece and promotion letters included, that row storage keeps. */
+class PackedMovesTest {
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            castling both ways       | e2e4 e7e5 g1f3 b8c6 f1c4 d7d6 e1g1 c8g4 d2d3 d8d7 b1c3 e8c8
+            en passant for white     | e2e4 a7a6 e4e5 d7d5 e5d6
+            en passant for black     | a2a3 e7e5 a3a4 e5e4 d2d4 e4d3
+            promotion to a queen     | a2a4 b7b5 a4b5 a7a6 b5a6 c8b7 a6b7 b8c6 b7a8q
+            promotion to a rook      | a2a4 b7b5 a4b5 a7a6 b5a6 c8b7 a6b7 b8c6 b7a8r
+            promotion to a bishop    | a2a4 b7b5 a4b5 a7a6 b5a6 c8b7 a6b7 b8c6 b7a8b
+            promotion to a knight    | a2a3 b7b5 a3a4 b5a4 b2b3 a4b3 c1b2 b3c2 b2c3 c2d1n
+            """)
+    void roundTrips(String name, String moves) {
+        List<MoveDto> stored = asStored(moves);
+        Position position = Position.start();
+        int[] codes = new int[stored.size()];
+        for (int i = 0; i < codes.length; i++) {
+            MoveDto m = stored.get(i);
+            codes[i] = ChessBoardService.toMove(position, m.getFromSquare(), m.getToSquare(), m.getPromotion());
+            position.makeMove(codes[i]);
+        }
+        byte[] packed = PackedMoves.of(codes);
+
+        assertEquals(codes.length, PackedMoves.count(packed));
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(codes[i], PackedMoves.moveAt(packed, i));
+        }
+        List<MoveDto> decoded = PackedMoves.decode(packed);
+        assertEquals(stored, decoded, name);
+        String last = moves.substring(moves.lastIndexOf(' ') + 1);
+        assertEquals(last.length() > 4 ? last.substring(4).toUpperCase() : null, decoded.get(decoded.size() - 1).getPromotion());
+    }
+
+    /**
+     * The moves of a game given in UCI notation as row storage keeps them: the moving piece's letter and the
+     * upper-case promotion letter. Throws on an illegal move.
+     */
+    static List<MoveDto> asStored(String moves) {
+        Position position = Position.start();
+        List<MoveDto> stored = new ArrayList<>();
+        for (String uci : moves.split(" ")) {
+            String from = uci.substring(0, 2);
+            String to = uci.substring(2, 4);
+            String promotion = uci.length() > 4 ? uci.substring(4) : null;
+            if (!ChessBoardService.isMoveValid(position, from, to, promotion, position.whiteToMove())) {
+                throw new IllegalArgumentException("Illegal move " + uci + " in " + position.toFen());
+            }
+            String piece = ChessBoardService.pieceLetter(position, from);
+            int move = ChessBoardService.toMove(position, from, to, promotion);
+            position.makeMove(move);
+            stored.add(new MoveDto(stored.size() + 1, from, to, piece, ChessBoardService.promotionLetter(move)));
+        }
+        return stored;
+    }
+}
@@ -0,0 +1,127 @@
+package com.chess.websocket;
+
+import com.chess.cluster.ClusterBus;
+import com.chess.entity.TimeControl;
+import com.chess.websocket.InvitationService.Invitation;
+import com.chess.websocket.InvitationService.InvitationEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class InvitationServiceTest {
+
+    private final ClusterBus clusterBus = mock(ClusterBus.class);
+    private final PresenceService presence = mock(PresenceService.class);
+    private final SimpMessagingTemplate messaging = mock(SimpMessagingTemplate.class);
+
+    @Test
+    void keysIgnoreCase() {
+        InvitationService invitations = started(60);
+        Invitation inv = invitations.create("Alice", "Bob", TimeControl.defaults());
+
+        assertNotNull(inv);
+        assertNull(invitations.create("ALICE", "bob", TimeControl.defaults()), "already pending");
+        assertSame(inv, invitations.get("alice", "BOB"));
+        assertEquals(List.of(inv), invitations.getPendingFor("bob"));
+        assertSame(inv, invitations.remove("aLiCe", "bOb"));
+        assertNull(invitations.remove("Alice", "Bob"), "only one caller acts on an invitation");
+        assertNotNull(invitations.create("Alice", "Bob", TimeControl.defaults()), "can invite again once answered");
+    }
+
+    @Test
+    void answeredInvitationDoesNotExpire() {
+        InvitationService invitations = started(0);
+        invitations.create("Alice", "Bob", TimeControl.defaults());
+        invitations.remove("Alice", "Bob");
+
+        invitations.expireInvitations();
+
+        verify(messaging, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    void expiryOfAnAnsweredInvitationSparesTheNextOne() {
+        InvitationService invitations = started(0);
+        invitations.create("Alice", "Bob", TimeControl.defaults());
+        invitations.remove("Alice", "Bob");
+        invitations.create("Alice", "Bob", TimeControl.defaults());
+
+        invitations.expireInvitations();
+
+        assertNull(invitations.get("Alice", "Bob"));
+        verify(messaging, times(1)).convertAndSendToUser("Alice", "/queue/invitations",
+                Map.of("type", "EXPIRED", "toUsername", "Bob"));
+        verify(messaging, times(1)).convertAndSendToUser("Bob", "/queue/invitations",
+                Map.of("type", "EXPIRED", "fromUsername", "Alice"));
+    }
+
+    @Test
+    void replicaExpiresSilently() {
+        InvitationService invitations = started(0);
+        BiConsumer<String, InvitationEvent> otherNodes = clusterListener();
+        otherNodes.accept("node-b", new InvitationEvent(InvitationEvent.Type.CREATED, "Alice", "Bob", TimeControl.defaults()));
+        assertFalse(invitations.get("Alice", "Bob").isOwned());
+
+        invitations.expireInvitations();
+
+        assertNull(invitations.get("Alice", "Bob"));
+        verify(messaging, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    void leavingCancelsBothDirections() {
+        InvitationService invitations = started(60);
+        Consumer<String> offline = offlineListener();
+        invitations.create("Alice", "Bob", TimeControl.defaults());
+        invitations.create("Carol", "alice", TimeControl.defaults());
+        invitations.create("Carol", "Bob", TimeControl.defaults());
+
+        offline.accept("Alice");
+
+        assertNull(invitations.get("Alice", "Bob"));
+        assertNull(invitations.get("Carol", "Alice"));
+        assertNotNull(invitations.get("Carol", "Bob"));
+        verify(messaging).convertAndSendToUser("Bob", "/queue/invitations",
+                Map.of("type", "CANCELLED", "fromUsername", "Alice"));
+        verify(messaging).convertAndSendToUser("Carol", "/queue/invitations",
+                Map.of("type", "CANCELLED", "toUsername", "alice"));
+    }
+
+    private InvitationService started(long ttlSeconds) {
+        InvitationService invitations = new InvitationService(clusterBus, presence, messaging, ttlSeconds);
+        invitations.subscribe();
+        return invitations;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BiConsumer<String, InvitationEvent> clusterListener() {
+        ArgumentCaptor<BiConsumer<String, InvitationEvent>> listener = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(clusterBus).subscribe(eq("invitations"), eq(InvitationEvent.class), listener.capture());
+        return listener.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String> offlineListener() {
+        ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(presence).onLocalOffline(listener.capture());
+        return listener.getValue();
+    }
+}
@@ -0,0 +1,154 @@
+package com.chess.websocket;
+
+import com.chess.entity.Game;
+import com.chess.entity.TimeControl;
+import com.chess.entity.User;
+import com.chess.repository.UserRepository;
+import com.chess.service.GameService;
+import com.chess.service.GameService.Pairing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Pairing runs on the service's own thread every 20 ms; tests wait for its outcome. */
+class MatchmakingServiceTest {
+
+    private static final TimeControl BLITZ = TimeControl.of(300_000, 0, TimeControl.DelayMode.NONE, 0);
+    private static final TimeControl RAPID = TimeControl.of(600_000, 0, TimeControl.DelayMode.NONE, 0);
+
+    private final GameService gameService = mock(GameService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final Map<String, Double> ratings = new ConcurrentHashMap<>();
+    /** Each pairing as the set of its two players, and when it was made. */
+    private final List<Set<String>> paired = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Set<String>, Long> pairedAt = new ConcurrentHashMap<>();
+    private final AtomicLong gameIds = new AtomicLong();
+    private MatchmakingService matchmaking;
+
+    @AfterEach
+    void stop() {
+        matchmaking.stop();
+    }
+
+    @Test
+    void pairsTheClosestPlayerWithinTheBand() throws InterruptedException {
+        start(0);
+        join("a", 1500, BLITZ);
+        join("b", 1560, BLITZ);
+        join("c", 1590, BLITZ);
+        join("d", 1700, BLITZ);
+
+        awaitPairings(1);
+        Thread.sleep(200);
+
+        assertEquals(List.of(Set.of("a", "b")), paired);
+        assertEquals(2, matchmaking.waitingCount(), "c and d are 110 apart, more than the band of 100");
+    }
+
+    @Test
+    void waitsUntilTheDifferenceIsWithinBothPlayersBands() throws InterruptedException {
+        start(1000);
+        join("a", 1500, BLITZ);
+        Thread.sleep(400); // a accepts 500 points by now
+        long joined = System.currentTimeMillis();
+        join("b", 1800, BLITZ);
+
+        awaitPairings(1);
+
+        assertTrue(pairedAt.get(Set.of("a", "b")) >= joined + 200, "b's band reaches 300 only after 200 ms");
+    }
+
+    @Test
+    void pairsOnlyWithinATimeControlAndForgetsPlayersWhoLeft() throws InterruptedException {
+        start(0);
+        join("a", 1500, BLITZ);
+        join("b", 1500, RAPID);
+        Thread.sleep(100);
+        matchmaking.leave("a");
+        join("c", 1500, RAPID);
+        join("d", 1500, BLITZ);
+
+        awaitPairings(1);
+        Thread.sleep(200);
+
+        assertEquals(List.of(Set.of("b", "c")), paired);
+        assertEquals(1, matchmaking.waitingCount());
+    }
+
+    @Test
+    void playersStayQueuedWhenTheGamesCannotBeCreated() throws InterruptedException {
+        start(0);
+        boolean[] failed = new boolean[1];
+        when(gameService.createGames(anyList())).thenAnswer(call -> {
+            if (!failed[0]) {
+                failed[0] = true;
+                throw new IllegalStateException("database down");
+            }
+            return games(call.getArgument(0));
+        });
+        join("a", 1500, BLITZ);
+        join("b", 1520, BLITZ);
+
+        awaitPairings(1);
+        assertEquals(List.of(Set.of("a", "b")), paired);
+    }
+
+    private void start(double bandPerSecond) {
+        when(userRepository.findByUsernameIn(any())).thenAnswer(call -> {
+            Collection<String> names = call.getArgument(0);
+            return names.stream().filter(ratings::containsKey)
+                    .map(name -> User.builder().username(name).rating(ratings.get(name)).build())
+                    .toList();
+        });
+        when(gameService.createGames(anyList())).thenAnswer(call -> games(call.getArgument(0)));
+        matchmaking = new MatchmakingService(gameService, userRepository, mock(PresenceService.class),
+                mock(SimpMessagingTemplate.class), 20, 100, bandPerSecond, 10_000);
+        matchmaking.start();
+    }
+
+    private void join(String username, double rating, TimeControl timeControl) {
+        ratings.put(username, rating);
+        matchmaking.join(username, timeControl);
+    }
+
+    private List<Game> games(List<Pairing> pairings) {
+        long now = System.currentTimeMillis();
+        List<Game> games = new ArrayList<>();
+        for (Pairing p : pairings) {
+            Set<String> players = Set.of(p.whiteUsername(), p.blackUsername());
+            pairedAt.put(players, now);
+            paired.add(players);
+            games.add(Game.builder()
+                    .id(gameIds.incrementAndGet())
+                    .whitePlayer(User.builder().username(p.whiteUsername()).build())
+                    .blackPlayer(User.builder().username(p.blackUsername()).build())
+                    .timeControl(p.timeControl())
+                    .build());
+        }
+        return games;
+    }
+
+    private void awaitPairings(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (paired.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, paired.size(), "pairings made: " + paired);
+    }
+}
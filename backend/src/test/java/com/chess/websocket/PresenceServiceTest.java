@@ -0,0 +1,129 @@
+package com.chess.websocket;
+
+import com.chess.cluster.ClusterBus;
+import com.chess.websocket.PresenceService.LobbyDelta;
+import com.chess.websocket.PresenceService.PresenceEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class PresenceServiceTest {
+
+    private final ClusterBus clusterBus = mock(ClusterBus.class);
+    private final PresenceService presence = new PresenceService(clusterBus);
+    private final List<LobbyDelta> deltas = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> offline = Collections.synchronizedList(new ArrayList<>());
+    private BiConsumer<String, PresenceEvent> otherNodes;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        presence.subscribeToCluster();
+        ArgumentCaptor<BiConsumer<String, PresenceEvent>> listener = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(clusterBus).subscribe(eq("presence"), eq(PresenceEvent.class), listener.capture());
+        otherNodes = listener.getValue();
+        presence.onLobbyDelta(deltas::add);
+        presence.onLocalOffline(offline::add);
+    }
+
+    @Test
+    void secondTabKeepsTheUserOnline() {
+        presence.register("s1", "Alice");
+        presence.register("s2", "Alice");
+        presence.register("s2", "Alice");
+        assertEquals(List.of(new LobbyDelta(1, LobbyDelta.Type.JOIN, "Alice")), deltas);
+        assertEquals(Set.of("s1", "s2"), presence.getSessionIds("Alice"));
+
+        presence.unregister("s1");
+        assertTrue(presence.isConnected("Alice"));
+        assertEquals(1, deltas.size());
+        assertEquals(List.of(), offline);
+
+        presence.unregister("s2");
+        assertFalse(presence.isConnected("Alice"));
+        assertEquals(new LobbyDelta(2, LobbyDelta.Type.LEAVE, "Alice"), deltas.get(1));
+        assertEquals(List.of("Alice"), offline);
+        assertEquals(2, presence.version());
+        assertEquals(List.of(), presence.snapshot().usernames());
+    }
+
+    @Test
+    void namesAreResolvedIgnoringCase() {
+        presence.register("s1", "Alice");
+        assertEquals("Alice", presence.resolveConnectedUsername("ALICE").orElseThrow());
+        assertFalse(presence.isConnected("alice"), "isConnected takes the exact principal name");
+        assertTrue(presence.resolveConnectedUsername(" ").isEmpty());
+    }
+
+    @Test
+    void userOnAnotherNodeStaysVisibleAfterLeavingThisOne() {
+        presence.register("s1", "Alice");
+        otherNodes.accept("node-b", new PresenceEvent(PresenceEvent.Type.ONLINE, "Alice", null));
+        otherNodes.accept("node-b", new PresenceEvent(PresenceEvent.Type.ONLINE, "Bob", null));
+
+        presence.unregister("s1");
+        assertTrue(presence.isConnected("Alice"));
+        assertEquals(List.of("Alice"), offline, "offline here: local invitations and queue entries go");
+
+        otherNodes.accept("node-b", new PresenceEvent(PresenceEvent.Type.SNAPSHOT, null, List.of("Bob")));
+        assertFalse(presence.isConnected("Alice"));
+        assertEquals(List.of(
+                new LobbyDelta(1, LobbyDelta.Type.JOIN, "Alice"),
+                new LobbyDelta(2, LobbyDelta.Type.JOIN, "Bob"),
+                new LobbyDelta(3, LobbyDelta.Type.LEAVE, "Alice")), deltas);
+        verify(clusterBus).publish(eq("presence"), eq(new PresenceEvent(PresenceEvent.Type.OFFLINE, "Alice", null)));
+    }
+
+    @Test
+    void concurrentChangesAreDeliveredInVersionOrder() throws InterruptedException {
+        int threads = 8;
+        int rounds = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    String session = thread + "-" + i;
+                    presence.register(session, "user" + (i % 5));
+                    presence.unregister(session);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        List<LobbyDelta> delivered = new ArrayList<>(deltas);
+        Map<String, LobbyDelta.Type> last = new HashMap<>();
+        for (int i = 0; i < delivered.size(); i++) {
+            LobbyDelta delta = delivered.get(i);
+            assertEquals(i + 1, delta.version());
+            LobbyDelta.Type previous = last.put(delta.username(), delta.type());
+            assertTrue(previous != delta.type() && (previous != null || delta.type() == LobbyDelta.Type.JOIN),
+                    "each user alternates JOIN and LEAVE: " + delta);
+        }
+        assertEquals(delivered.size(), presence.version());
+        assertEquals(List.of(), presence.snapshot().usernames());
+        assertFalse(presence.hasLocalSessions());
+    }
+}
@@ -2,7 +2,7 @@ import { Component, OnInit, OnDestroy, signal, computed } from '@angular/core';
 import { ActivatedRoute, RouterLink } from '@angular/router';
 import { CommonModule } from '@angular/common';
 import { AuthService } from '../../services/auth.service';
-import { WebSocketService } from '../../services/websocket.service';
+import { WebSocketService, GameEvent } from '../../services/websocket.service';
 import { GameService, GameDto, MoveDto } from '../../services/game.service';
 import { ChessBoardComponent } from '../../components/chess-board/chess-board.component';
 import { Subject } from 'rxjs';
@@ -31,8 +31,8 @@ import { takeUntil } from 'rxjs/operators';
               <span class="timer" [class.running]="game()?.status === 'ACTIVE' && !whiteToMove()">{{ displayBlackTime() }}</span>
             </div>
           </div>
-          @if (game()?.status === 'FINISHED') {
-            <p class="result">{{ game()?.winnerUsername ? game()!.winnerUsername + ' a gagné' : 'Partie terminée' }}</p>
+          @if (game()?.status === 'FINISHED' || game()?.status === 'DRAW' || game()?.status === 'ABORTED') {
+            <p class="result">{{ game()?.winnerUsername ? game()!.winnerUsername + ' a gagné' : game()?.status === 'DRAW' ? 'Partie nulle' : game()?.status === 'ABORTED' ? 'Partie annulée (erreur serveur)' : 'Partie terminée' }}</p>
             <p class="replay-mode-hint">Utilisez les boutons ci-dessous pour rejouer les coups.</p>
           } @else if (game() && !loading()) {
             <p class="turn-hint" [class.your-turn]="isMyTurn()">{{ isMyTurn() ? 'À votre tour' : "En attente de l'adversaire" }}</p>
@@ -149,8 +149,9 @@ export class GameComponent implements OnInit, OnDestroy {
   private unsubGame: (() => void) | null = null;
   private destroy$ = new Subject<void>();
   private timerInterval: ReturnType<typeof setInterval> | null = null;
-  private syncInterval: ReturnType<typeof setInterval> | null = null;
   private gameId: number | null = null;
+  /** Sequence number of the last game event applied (see GameEvent). */
+  private lastSeq = 0;
 
   /** true = joueur courant a les blancs (invitant), false = a les noirs (invité). */
   isWhite = computed(() => {
@@ -175,21 +176,17 @@ export class GameComponent implements OnInit, OnDestroy {
   private displayWhiteSeconds(): number {
     this.tick();
     const g = this.game();
-    if (!g || g.status !== 'ACTIVE') return g?.whiteRemainingSeconds ?? 600;
-    const base = g.whiteRemainingSeconds ?? 600;
-    if (!this.whiteToMove()) return base;
-    const elapsed = Math.floor(Date.now() / 1000) - Math.floor(this.lastGameFetchAt() / 1000);
-    return Math.max(0, base - elapsed);
+    const base = g?.whiteRemainingMs ?? (g?.whiteRemainingSeconds ?? 600) * 1000;
+    if (!g || g.status !== 'ACTIVE' || !this.whiteToMove()) return base / 1000;
+    return Math.max(0, base - (Date.now() - this.lastGameFetchAt())) / 1000;
   }
 
   private displayBlackSeconds(): number {
     this.tick();
     const g = this.game();
-    if (!g || g.status !== 'ACTIVE') return g?.blackRemainingSeconds ?? 600;
-    const base = g.blackRemainingSeconds ?? 600;
-    if (this.whiteToMove()) return base;
-    const elapsed = Math.floor(Date.now() / 1000) - Math.floor(this.lastGameFetchAt() / 1000);
-    return Math.max(0, base - elapsed);
+    const base = g?.blackRemainingMs ?? (g?.blackRemainingSeconds ?? 600) * 1000;
+    if (!g || g.status !== 'ACTIVE' || this.whiteToMove()) return base / 1000;
+    return Math.max(0, base - (Date.now() - this.lastGameFetchAt())) / 1000;
   }
 
   private formatTime(seconds: number): string {
@@ -213,7 +210,7 @@ export class GameComponent implements OnInit, OnDestroy {
       return;
     }
     this.ws.connect();
-    this.gameService.getGame(id).pipe(takeUntil(this.destroy$)).subscribe({
+    this.gameService.getGame(id, true).pipe(takeUntil(this.destroy$)).subscribe({
       next: (g) => {
         this.setGameState(g);
         this.loading.set(false);
@@ -234,31 +231,38 @@ export class GameComponent implements OnInit, OnDestroy {
     this.ws.errors$.pipe(takeUntil(this.destroy$)).subscribe((e) => {
       if (e.gameId === id) this.error.set(e.message);
     });
+    this.ws.gameSync$.pipe(takeUntil(this.destroy$)).subscribe((reply) => {
+      if (reply.gameId !== id) return;
+      if (reply.type === 'SNAPSHOT' && reply.game) this.setGameState(reply.game as GameDto);
+      else (reply.events ?? []).forEach((e) => this.onGameEvent(e));
+    });
     this.timerInterval = setInterval(() => this.tick.update((t) => t + 1), 1000);
-    this.syncInterval = setInterval(() => this.syncMovesFromServer(id), 1500);
-    setTimeout(() => this.syncMovesFromServer(id), 800);
   }
 
-  /** Poll server for new moves so the other player sees them without playing or refreshing. */
-  private syncMovesFromServer(id: number): void {
-    const g = this.game();
-    if (!g || g.status !== 'ACTIVE') return;
-    this.gameService.getGame(id).pipe(takeUntil(this.destroy$)).subscribe({
-      next: (server) => {
-        const serverMoves = server.moves?.length ?? 0;
-        const localMoves = this.moves().length;
-        if (serverMoves > localMoves) {
-          this.setGameState(server);
-        }
-        if (server.status === 'FINISHED') {
-          this.game.set(server);
-        }
-      },
-    });
+  /** Apply events in sequence order; a gap means frames were missed, so ask the server for the rest. */
+  private onGameEvent(e: GameEvent): void {
+    if (e.seq <= this.lastSeq) return;
+    if (e.seq > this.lastSeq + 1) {
+      if (this.gameId) this.ws.syncGame(this.gameId, this.lastSeq);
+      return;
+    }
+    this.lastSeq = e.seq;
+    this.applyClocks(e);
+    if (e.type === 'MOVE' && e.move) this.onRemoteMove(this.normalizeMove(e.move));
+    else if (e.type === 'GAME_OVER') this.onGameOver(e.winnerUsername ?? '', e.status);
+  }
+
+  private applyClocks(e: GameEvent): void {
+    if (e.whiteRemainingMs == null || e.blackRemainingMs == null) return;
+    const white = e.whiteRemainingMs;
+    const black = e.blackRemainingMs;
+    this.game.update((g) => (g ? { ...g, whiteRemainingMs: white, blackRemainingMs: black } : g));
+    this.lastGameFetchAt.set(Date.now());
   }
 
   private setGameState(g: GameDto): void {
     this.game.set(g);
+    this.lastSeq = g.plyCount + (g.status === 'ACTIVE' ? 0 : 1);
     this.moves.set(g.moves || []);
     this.replayIndex.set((g.moves || []).length);
     this.updateFenFromMoves();
@@ -269,10 +273,9 @@ export class GameComponent implements OnInit, OnDestroy {
   private ensureSubscribed(id: number): void {
     if (!this.ws.isConnected()) return;
     this.unsubGame?.();
-    this.unsubGame = this.ws.subscribeGame(id, (data) => {
-      if (data.type === 'MOVE' && data.move) this.onRemoteMove(this.normalizeMove(data.move));
-      else if (data.type === 'GAME_OVER') this.onGameOver(data.winnerUsername ?? '');
-    });
+    this.unsubGame = this.ws.subscribeGame(id, (e) => this.onGameEvent(e));
+    // Catch up on anything missed while (re)connecting: only the missing deltas come back.
+    this.ws.syncGame(id, this.lastSeq);
   }
 
   private normalizeMove(m: unknown): MoveDto {
@@ -289,13 +292,14 @@ export class GameComponent implements OnInit, OnDestroy {
   ngOnDestroy(): void {
     this.unsubGame?.();
     if (this.timerInterval) clearInterval(this.timerInterval);
-    if (this.syncInterval) clearInterval(this.syncInterval);
     this.destroy$.next();
     this.destroy$.complete();
   }
 
-  onGameOver(winnerUsername: string): void {
-    this.game.update((g) => (g ? { ...g, status: 'FINISHED', winnerUsername } : g));
+  /** An empty winner means a draw (or an aborted game); resignation, timeout and checkmate always have one. */
+  onGameOver(winnerUsername: string, eventStatus?: string): void {
+    const status = eventStatus ?? (winnerUsername ? 'FINISHED' : 'DRAW');
+    this.game.update((g) => (g ? { ...g, status, winnerUsername } : g));
     this.error.set('');
   }
 
@@ -312,14 +316,6 @@ export class GameComponent implements OnInit, OnDestroy {
     this.replayIndex.set(this.moves().length);
     this.updateFenFromMoves();
     this.error.set('');
-    if (this.gameId) {
-      this.gameService.getGame(this.gameId).pipe(takeUntil(this.destroy$)).subscribe({
-        next: (g) => {
-          this.game.set(g);
-          this.lastGameFetchAt.set(Date.now());
-        },
-      });
-    }
   }
 
   resign(): void {
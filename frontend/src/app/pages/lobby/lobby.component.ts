@@ -3,9 +3,9 @@ import { Router } from '@angular/router';
 import { CommonModule } from '@angular/common';
 import { AuthService } from '../../services/auth.service';
 import { WebSocketService } from '../../services/websocket.service';
-import { GameService, GameDto } from '../../services/game.service';
-import { Subject, interval } from 'rxjs';
-import { takeUntil, switchMap, startWith } from 'rxjs/operators';
+import { GameService, GameDto, LeaderboardEntry, UserStats } from '../../services/game.service';
+import { Subject } from 'rxjs';
+import { filter, takeUntil } from 'rxjs/operators';
 
 @Component({
   standalone: true,
@@ -37,20 +37,35 @@ import { takeUntil, switchMap, startWith } from 'rxjs/operators';
             <ul class="user-list">
               <li *ngFor="let u of lobbyUsers">
                 <span class="user-name">{{ u }}</span>
-                <button *ngIf="isOtherUser(u)" class="btn-invite" (click)="invite(u)" [disabled]="inviting === u">Inviter</button>
+                <button *ngIf="isOtherUser(u) && inviting !== u" class="btn-invite" (click)="invite(u)">Inviter</button>
+                <button *ngIf="inviting === u" class="btn-decline" (click)="cancelInvite(u)">Annuler</button>
               </li>
             </ul>
             <p class="muted empty" *ngIf="lobbyUsers.length === 0">Aucun autre joueur connecté.</p>
           </ng-template>
         </section>
 
-        <section class="card card-invite" [class.has-invite]="pendingInviteFrom">
-          <h2><span class="card-icon">●</span> Invitation reçue</h2>
-          <ng-container *ngIf="pendingInviteFrom; else noInvite">
-            <p class="invite-text"><strong>{{ pendingInviteFrom }}</strong> vous invite à jouer.</p>
-            <div class="actions">
-              <button class="btn-accept" (click)="acceptInvite()">Accepter</button>
-              <button class="btn-decline" (click)="declineInvite()">Refuser</button>
+        <section class="card card-queue">
+          <h2><span class="card-icon">●</span> Partie rapide</h2>
+          <ng-container *ngIf="!searching; else searchingBlock">
+            <p class="card-hint">Un adversaire de niveau proche vous est proposé automatiquement.</p>
+            <button class="btn-accept" (click)="joinQueue()" [disabled]="!wsConnected">Rechercher un adversaire</button>
+          </ng-container>
+          <ng-template #searchingBlock>
+            <p class="invite-text">Recherche d'un adversaire…</p>
+            <button class="btn-decline" (click)="leaveQueue()">Annuler la recherche</button>
+          </ng-template>
+        </section>
+
+        <section class="card card-invite" [class.has-invite]="pendingInvites.length > 0">
+          <h2><span class="card-icon">●</span> Invitations reçues</h2>
+          <ng-container *ngIf="pendingInvites.length > 0; else noInvite">
+            <div class="invite" *ngFor="let from of pendingInvites">
+              <p class="invite-text"><strong>{{ from }}</strong> vous invite à jouer.</p>
+              <div class="actions">
+                <button class="btn-accept" (click)="acceptInvite(from)">Accepter</button>
+                <button class="btn-decline" (click)="declineInvite(from)">Refuser</button>
+              </div>
             </div>
           </ng-container>
           <ng-template #noInvite>
@@ -69,13 +84,28 @@ import { takeUntil, switchMap, startWith } from 'rxjs/operators';
           <p class="muted empty" *ngIf="activeGames.length === 0">Aucune partie en cours.</p>
         </section>
 
+        <section class="card card-leaderboard">
+          <h2><span class="card-icon">●</span> Classement</h2>
+          <p class="card-hint" *ngIf="myStats">
+            Vous : {{ myStats.rating }} · {{ myStats.wins }} V / {{ myStats.losses }} D / {{ myStats.draws }} N
+            <span *ngIf="myStats.currentStreak > 1"> · {{ myStats.currentStreak }} victoires de suite</span>
+          </p>
+          <ul class="game-list">
+            <li *ngFor="let e of leaderboard">
+              <span class="game-info">{{ e.rank }}. {{ e.username }}</span>
+              <span class="game-result">{{ e.rating }}</span>
+            </li>
+          </ul>
+          <p class="muted empty" *ngIf="leaderboard.length === 0">Aucune partie classée pour l'instant.</p>
+        </section>
+
         <section class="card card-history">
           <h2><span class="card-icon">●</span> Historique des parties</h2>
           <p class="card-hint">Cliquez pour revoir une partie et rejouer les coups.</p>
           <div class="history-scroll">
             <ul class="game-list">
               <li *ngFor="let g of gameHistory" (click)="openGame(g.id)">
-                <span class="game-info">{{ g.whiteUsername }} vs {{ g.blackUsername }}<span class="game-result" *ngIf="g.winnerUsername"> — {{ g.winnerUsername }} a gagné</span></span>
+                <span class="game-info">{{ g.whiteUsername }} vs {{ g.blackUsername }}<span class="game-result" *ngIf="g.winnerUsername"> — {{ g.winnerUsername }} a gagné</span><span class="game-result" *ngIf="g.status === 'DRAW'"> — nulle</span><span class="game-result" *ngIf="g.status === 'ABORTED'"> — annulée</span></span>
                 <span class="link">Revoir →</span>
               </li>
             </ul>
@@ -172,6 +202,7 @@ import { takeUntil, switchMap, startWith } from 'rxjs/operators';
     .btn-invite:hover:not(:disabled) { filter: brightness(1.1); box-shadow: 0 4px 12px rgba(63, 185, 80, 0.4); }
     .btn-invite:disabled { opacity: 0.6; cursor: not-allowed; }
     .invite-text { margin: 0 0 1rem; color: #c9d1d9; }
+    .invite + .invite { margin-top: 1rem; padding-top: 1rem; border-top: 1px solid rgba(255, 255, 255, 0.06); }
     .btn-accept {
       padding: 0.5rem 1.1rem; font-size: 0.9rem; font-weight: 600; border-radius: 8px; border: none; cursor: pointer;
       background: linear-gradient(180deg, #3fb950 0%, #2ea043 100%); color: #fff;
@@ -211,10 +242,15 @@ import { takeUntil, switchMap, startWith } from 'rxjs/operators';
 export class LobbyComponent implements OnInit, OnDestroy {
   wsConnected = false;
   lobbyUsers: string[] = [];
-  pendingInviteFrom: string | null = null;
+  /** Senders of the invitations waiting for an answer, oldest first. */
+  pendingInvites: string[] = [];
   inviting: string | null = null;
+  /** Waiting in the matchmaking queue. */
+  searching = false;
   activeGames: GameDto[] = [];
   gameHistory: GameDto[] = [];
+  leaderboard: LeaderboardEntry[] = [];
+  myStats: UserStats | null = null;
   private destroy$ = new Subject<void>();
 
   constructor(
@@ -224,40 +260,66 @@ export class LobbyComponent implements OnInit, OnDestroy {
     private router: Router,
   ) {}
 
-  private pollInvitation(): void {
-    this.gameService.getPendingInvitation().subscribe((inv) => {
-      if (inv?.fromUsername) this.pendingInviteFrom = inv.fromUsername;
-      else if (inv === null) this.pendingInviteFrom = null;
-    });
-  }
-
   ngOnInit(): void {
     this.ws.connect();
-    this.ws.isConnected$.pipe(takeUntil(this.destroy$)).subscribe((c) => (this.wsConnected = c));
+    this.ws.isConnected$.pipe(takeUntil(this.destroy$)).subscribe((c) => {
+      this.wsConnected = c;
+      if (!c) this.searching = false; // the server drops us from the queue on disconnect
+    });
+    // Invitations sent while we were not connected; everything after that is pushed.
+    this.ws.isConnected$.pipe(filter((c) => c), takeUntil(this.destroy$)).subscribe(() => this.loadPendingInvites());
     this.ws.lobbyUsers$.pipe(takeUntil(this.destroy$)).subscribe((u) => (this.lobbyUsers = u));
     this.ws.invitations$.pipe(takeUntil(this.destroy$)).subscribe((msg) => {
-      if (msg.type === 'INVITATION') {
-        this.pendingInviteFrom = msg.fromUsername;
-      } else if (msg.type === 'ACCEPTED' && msg.gameId) {
-        this.pendingInviteFrom = null;
+      if (msg.type === 'INVITATION' && msg.fromUsername) {
+        this.addInvite(msg.fromUsername);
+      } else if (msg.type === 'QUEUED') {
+        this.searching = true;
+      } else if ((msg.type === 'ACCEPTED' || msg.type === 'MATCHED') && msg.gameId) {
+        this.pendingInvites = [];
         this.inviting = null;
+        this.searching = false;
         this.router.navigate(['/game', msg.gameId]);
-      } else if (msg.type === 'DECLINED') {
-        this.inviting = null;
+      } else if (msg.toUsername && ['DECLINED', 'EXPIRED', 'CANCELLED'].includes(msg.type)) {
+        // Our invitation to toUsername is over
+        if (this.inviting?.toLowerCase() === msg.toUsername.toLowerCase()) this.inviting = null;
+      } else if (msg.fromUsername && ['EXPIRED', 'CANCELLED'].includes(msg.type)) {
+        this.removeInvite(msg.fromUsername);
       }
     });
-    this.pollInvitation();
-    interval(2000)
-      .pipe(
-        startWith(0),
-        takeUntil(this.destroy$),
-        switchMap(() => this.gameService.getPendingInvitation()),
-      )
-      .subscribe((inv) => {
-        if (inv?.fromUsername) this.pendingInviteFrom = inv.fromUsername;
-      });
     this.loadActiveGames();
     this.loadGameHistory();
+    this.loadLeaderboard();
+  }
+
+  loadLeaderboard(): void {
+    this.gameService.getLeaderboard().subscribe({
+      next: (list) => (this.leaderboard = list),
+      error: () => (this.leaderboard = []),
+    });
+    const me = this.auth.currentUsername();
+    if (me) {
+      this.gameService.getUserStats(me).subscribe({
+        next: (stats) => (this.myStats = stats),
+        error: () => (this.myStats = null),
+      });
+    }
+  }
+
+  loadPendingInvites(): void {
+    this.gameService.getPendingInvitations().subscribe((list) => {
+      this.pendingInvites = [];
+      list.forEach((inv) => this.addInvite(inv.fromUsername));
+    });
+  }
+
+  private addInvite(fromUsername: string): void {
+    if (!this.pendingInvites.some((u) => u.toLowerCase() === fromUsername.toLowerCase())) {
+      this.pendingInvites = [...this.pendingInvites, fromUsername];
+    }
+  }
+
+  private removeInvite(fromUsername: string): void {
+    this.pendingInvites = this.pendingInvites.filter((u) => u.toLowerCase() !== fromUsername.toLowerCase());
   }
 
   loadGameHistory(): void {
@@ -268,6 +330,7 @@ export class LobbyComponent implements OnInit, OnDestroy {
   }
 
   ngOnDestroy(): void {
+    if (this.searching) this.ws.leaveQueue();
     this.destroy$.next();
     this.destroy$.complete();
   }
@@ -284,16 +347,27 @@ export class LobbyComponent implements OnInit, OnDestroy {
     this.ws.invite(username);
   }
 
-  acceptInvite(): void {
-    if (!this.pendingInviteFrom) return;
-    this.ws.acceptInvitation(this.pendingInviteFrom);
+  joinQueue(): void {
+    this.ws.joinQueue();
   }
 
-  declineInvite(): void {
-    if (this.pendingInviteFrom) {
-      this.ws.declineInvitation(this.pendingInviteFrom);
-      this.pendingInviteFrom = null;
-    }
+  leaveQueue(): void {
+    this.ws.leaveQueue();
+    this.searching = false;
+  }
+
+  cancelInvite(username: string): void {
+    this.ws.cancelInvitation(username);
+    this.inviting = null;
+  }
+
+  acceptInvite(fromUsername: string): void {
+    this.ws.acceptInvitation(fromUsername);
+  }
+
+  declineInvite(fromUsername: string): void {
+    this.ws.declineInvitation(fromUsername);
+    this.removeInvite(fromUsername);
   }
 
   openGame(id: number): void {
@@ -13,19 +13,57 @@ export interface MoveDto {
   promotion?: string;
 }
 
+export interface TimeControl {
+  baseMs: number;
+  incrementMs: number;
+  delayMs: number;
+  delayMode: 'NONE' | 'SIMPLE' | 'BRONSTEIN';
+}
+
 export interface GameDto {
   id: number;
   whiteUsername: string;
   blackUsername: string;
   status: string;
   winnerUsername?: string;
-  moves: MoveDto[];
+  /** Only present when requested with `includeMoves`. */
+  moves?: MoveDto[];
   fen: string;
+  plyCount: number;
   whiteRemainingSeconds?: number;
   blackRemainingSeconds?: number;
+  whiteRemainingMs?: number;
+  blackRemainingMs?: number;
+  timeControl?: TimeControl;
   turnStartedAtEpochMs?: number;
 }
 
+export interface PendingInvitation {
+  fromUsername: string;
+  timeControl?: TimeControl;
+  expiresAtEpochMs: number;
+}
+
+export interface LeaderboardEntry {
+  rank: number;
+  username: string;
+  rating: number;
+  ratingDeviation: number;
+}
+
+export interface UserStats {
+  username: string;
+  rating: number;
+  ratingDeviation: number;
+  gamesPlayed: number;
+  wins: number;
+  losses: number;
+  draws: number;
+  /** Consecutive wins (positive) or losses (negative). */
+  currentStreak: number;
+  bestWinStreak: number;
+}
+
 @Injectable({ providedIn: 'root' })
 export class GameService {
   constructor(private http: HttpClient) {}
@@ -34,22 +72,33 @@ export class GameService {
     return this.http.get<GameDto[]>(`${API}/games/active`);
   }
 
-  getGameHistory(): Observable<GameDto[]> {
-    return this.http.get<GameDto[]>(`${API}/games/history`);
+  /** Finished games, newest first; pass the id of the last game received as `before` for the next page. */
+  getGameHistory(before?: number, limit = 50): Observable<GameDto[]> {
+    const params: Record<string, string> = { limit: String(limit) };
+    if (before != null) params['before'] = String(before);
+    return this.http.get<GameDto[]>(`${API}/games/history`, { params });
   }
 
-  getGame(id: number): Observable<GameDto> {
-    return this.http.get<GameDto>(`${API}/games/${id}`);
+  getGame(id: number, includeMoves = false): Observable<GameDto> {
+    return this.http.get<GameDto>(`${API}/games/${id}`, { params: { includeMoves: String(includeMoves) } });
   }
 
   resign(id: number): Observable<void> {
     return this.http.post<void>(`${API}/games/${id}/resign`, {});
   }
 
-  /** Poll for pending invitation (fallback when WebSocket does not deliver). 200 + {} = no invitation. */
-  getPendingInvitation(): Observable<{ fromUsername?: string } | null> {
+  getLeaderboard(limit = 10): Observable<LeaderboardEntry[]> {
+    return this.http.get<LeaderboardEntry[]>(`${API}/leaderboard`, { params: { limit: String(limit) } });
+  }
+
+  getUserStats(username: string): Observable<UserStats> {
+    return this.http.get<UserStats>(`${API}/users/${encodeURIComponent(username)}/stats`);
+  }
+
+  /** Invitations already pending when the lobby opens; later changes arrive on /user/queue/invitations. */
+  getPendingInvitations(): Observable<PendingInvitation[]> {
     return this.http
-      .get<{ fromUsername?: string }>(`${API}/invitations/pending`)
-      .pipe(catchError(() => of(null)));
+      .get<PendingInvitation[]>(`${API}/invitations/pending`)
+      .pipe(catchError(() => of([])));
   }
 }
@@ -1,19 +1,81 @@
 import { Injectable, OnDestroy } from '@angular/core';
 import { AuthService } from './auth.service';
-import { Client } from '@stomp/stompjs';
+import { Client, StompSubscription } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { Subject, BehaviorSubject } from 'rxjs';
 
+/** Optional time control sent with an invitation (seconds). */
+export interface TimeControlRequest {
+  baseSeconds: number;
+  incrementSeconds?: number;
+  delaySeconds?: number;
+  delayMode?: 'NONE' | 'SIMPLE' | 'BRONSTEIN';
+}
+
+/** Event on /topic/game/{id}; `seq` goes up by one per event (MOVE = ply number, GAME_OVER = plies + 1). */
+export interface GameEvent {
+  type: 'MOVE' | 'GAME_OVER';
+  gameId: number;
+  seq: number;
+  move?: unknown;
+  /** GAME_OVER only: FINISHED, DRAW or ABORTED. */
+  status?: string;
+  winnerUsername?: string;
+  whiteRemainingMs?: number;
+  blackRemainingMs?: number;
+  turnStartedAtEpochMs?: number;
+}
+
+/** Reply to a game sync request: the missed events, or the whole game when they are no longer buffered. */
+export interface GameSyncReply {
+  type: 'SYNC' | 'SNAPSHOT';
+  gameId: number;
+  events?: GameEvent[];
+  seq?: number;
+  game?: unknown;
+}
+
+/**
+ * Message on /user/queue/invitations. EXPIRED and CANCELLED name the other player of the invitation;
+ * QUEUED and MATCHED come from matchmaking.
+ */
+export interface InvitationMessage {
+  type: 'INVITATION' | 'ACCEPTED' | 'DECLINED' | 'EXPIRED' | 'CANCELLED' | 'QUEUED' | 'MATCHED';
+  fromUsername?: string;
+  toUsername?: string;
+  expiresAtEpochMs?: number;
+  gameId?: number;
+  whiteUsername?: string;
+  blackUsername?: string;
+}
+
+/** Lobby presence on /user/queue/lobby/users (SNAPSHOT) and on the topic it names (JOIN, LEAVE, HEARTBEAT). */
+interface LobbyPresenceMessage {
+  type: 'SNAPSHOT' | 'JOIN' | 'LEAVE' | 'HEARTBEAT';
+  version: number;
+  username?: string;
+  usernames?: string[];
+  topic?: string;
+}
+
 const WS_URL = '/ws';
+/** How often the clock round trip is measured for server-side lag compensation. */
+const CLOCK_PING_MS = 10000;
 
 @Injectable({ providedIn: 'root' })
 export class WebSocketService implements OnDestroy {
   private client: Client | null = null;
   private connected = new BehaviorSubject<boolean>(false);
   private lobbyUsers = new BehaviorSubject<string[]>([]);
-  private invitations = new Subject<{ fromUsername: string; type: string; gameId?: number; whiteUsername?: string; blackUsername?: string }>();
+  private invitations = new Subject<InvitationMessage>();
   private gameMoves = new Subject<{ gameId: number; type: string; move?: unknown }>();
   private errors = new Subject<{ message: string; gameId?: number }>();
+  private gameSync = new Subject<GameSyncReply>();
+  private clockPing: ReturnType<typeof setInterval> | null = null;
+  private lobbyVersion = -1;
+  private lobbySet = new Set<string>();
+  private presenceTopic: string | null = null;
+  private presenceSub: StompSubscription | null = null;
 
   isConnected$ = this.connected.asObservable();
 
@@ -25,6 +87,7 @@ export class WebSocketService implements OnDestroy {
   invitations$ = this.invitations.asObservable();
   gameMoves$ = this.gameMoves.asObservable();
   errors$ = this.errors.asObservable();
+  gameSync$ = this.gameSync.asObservable();
 
   constructor(private auth: AuthService) {}
 
@@ -41,10 +104,12 @@ export class WebSocketService implements OnDestroy {
         this.connected.next(true);
         this.subscribeLobby();
         this.sendJoinLobby();
+        this.startClockPing();
       },
       onDisconnect: () => {
+        this.stopClockPing();
         this.connected.next(false);
-        this.lobbyUsers.next([]);
+        this.resetLobby();
       },
       onStompError: (frame) => console.error('STOMP error', frame),
     });
@@ -53,18 +118,72 @@ export class WebSocketService implements OnDestroy {
 
   private subscribeLobby(): void {
     if (!this.client?.connected) return;
-    const pushLobbyUsers = (msg: { body: string }) => {
-      const body = JSON.parse(msg.body);
-      this.lobbyUsers.next(body.usernames || []);
-    };
-    this.client.subscribe('/topic/lobby/users', pushLobbyUsers);
-    this.client.subscribe('/user/queue/lobby/users', pushLobbyUsers);
+    this.client.subscribe('/user/queue/lobby/users', (msg) => this.onLobbyPresence(JSON.parse(msg.body)));
     this.client.subscribe('/user/queue/invitations', (msg) => {
       this.invitations.next(JSON.parse(msg.body));
     });
     this.client.subscribe('/user/queue/errors', (msg) => {
       this.errors.next(JSON.parse(msg.body));
     });
+    this.client.subscribe('/user/queue/game', (msg) => {
+      this.gameSync.next(JSON.parse(msg.body));
+    });
+    // Echo server pings right away so the server can measure our round trip.
+    this.client.subscribe('/user/queue/clock', (msg) => {
+      const body = JSON.parse(msg.body);
+      if (body.type === 'PING') this.send('/app/clock/pong', { token: body.token });
+    });
+  }
+
+  /** Apply a snapshot, or a delta that directly follows the current version; anything else asks for a snapshot. */
+  private onLobbyPresence(msg: LobbyPresenceMessage): void {
+    if (msg.type === 'SNAPSHOT') {
+      this.lobbySet = new Set(msg.usernames || []);
+      this.lobbyVersion = msg.version;
+      if (msg.topic) this.subscribePresence(msg.topic);
+      this.lobbyUsers.next([...this.lobbySet]);
+      return;
+    }
+    if (this.lobbyVersion < 0) return;
+    if (msg.type === 'HEARTBEAT') {
+      if (msg.version !== this.lobbyVersion) this.send('/app/lobby/sync', {});
+      return;
+    }
+    if (msg.version <= this.lobbyVersion) return;
+    if (msg.version !== this.lobbyVersion + 1 || !msg.username) {
+      this.send('/app/lobby/sync', {});
+      return;
+    }
+    if (msg.type === 'JOIN') this.lobbySet.add(msg.username);
+    else this.lobbySet.delete(msg.username);
+    this.lobbyVersion = msg.version;
+    this.lobbyUsers.next([...this.lobbySet]);
+  }
+
+  private subscribePresence(topic: string): void {
+    if (!this.client?.connected || topic === this.presenceTopic) return;
+    this.presenceSub?.unsubscribe();
+    this.presenceTopic = topic;
+    this.presenceSub = this.client.subscribe(topic, (msg) => this.onLobbyPresence(JSON.parse(msg.body)));
+  }
+
+  private resetLobby(): void {
+    this.lobbyVersion = -1;
+    this.lobbySet.clear();
+    this.presenceTopic = null;
+    this.presenceSub = null;
+    this.lobbyUsers.next([]);
+  }
+
+  private startClockPing(): void {
+    this.stopClockPing();
+    this.send('/app/clock/ping', {});
+    this.clockPing = setInterval(() => this.send('/app/clock/ping', {}), CLOCK_PING_MS);
+  }
+
+  private stopClockPing(): void {
+    if (this.clockPing) clearInterval(this.clockPing);
+    this.clockPing = null;
   }
 
   private sendJoinLobby(): void {
@@ -76,8 +195,8 @@ export class WebSocketService implements OnDestroy {
     this.client.publish({ destination: dest, body: JSON.stringify(body) });
   }
 
-  invite(toUsername: string): void {
-    this.send('/app/lobby/invite', { toUsername });
+  invite(toUsername: string, timeControl?: TimeControlRequest): void {
+    this.send('/app/lobby/invite', timeControl ? { toUsername, timeControl } : { toUsername });
   }
 
   acceptInvitation(fromUsername: string): void {
@@ -88,7 +207,20 @@ export class WebSocketService implements OnDestroy {
     this.send('/app/lobby/decline', { fromUsername });
   }
 
-  subscribeGame(gameId: number, onMessage: (data: { type: string; move?: unknown; winnerUsername?: string }) => void): () => void {
+  cancelInvitation(toUsername: string): void {
+    this.send('/app/lobby/cancel', { toUsername });
+  }
+
+  /** Look for an opponent with the given time control (server default when omitted). */
+  joinQueue(timeControl?: TimeControlRequest): void {
+    this.send('/app/lobby/queue/join', timeControl ? { timeControl } : {});
+  }
+
+  leaveQueue(): void {
+    this.send('/app/lobby/queue/leave', {});
+  }
+
+  subscribeGame(gameId: number, onMessage: (event: GameEvent) => void): () => void {
     if (!this.client?.connected) return () => {};
     const sub = this.client.subscribe(`/topic/game/${gameId}`, (msg) => {
       const data = JSON.parse(msg.body);
@@ -97,6 +229,11 @@ export class WebSocketService implements OnDestroy {
     return () => sub.unsubscribe();
   }
 
+  /** Ask for every event after `fromSeq`; the answer arrives on `gameSync$`. */
+  syncGame(gameId: number, fromSeq: number): void {
+    this.send(`/app/game/${gameId}/sync`, { fromSeq });
+  }
+
   sendMove(gameId: number, moveNumber: number, fromSquare: string, toSquare: string, piece?: string, promotion?: string): void {
     const body: Record<string, unknown> = { moveNumber, fromSquare, toSquare };
     if (piece) body['piece'] = piece;
@@ -105,9 +242,11 @@ export class WebSocketService implements OnDestroy {
   }
 
   disconnect(): void {
+    this.stopClockPing();
     this.client?.deactivate();
     this.client = null;
     this.connected.next(false);
+    this.resetLobby();
   }
 
   ngOnDestroy(): void {